@@ -0,0 +1,16 @@
+package ma.sieger.gatewayservice.coalescing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CoalescingProperties.class)
+public class CoalescingConfig {
+
+    @Bean
+    public RequestCoalescingFilter requestCoalescingFilter(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        return new RequestCoalescingFilter(properties, meterRegistry);
+    }
+}
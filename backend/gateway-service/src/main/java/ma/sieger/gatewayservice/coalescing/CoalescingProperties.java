@@ -0,0 +1,22 @@
+package ma.sieger.gatewayservice.coalescing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Which GET requests may share one upstream call ({@code paths} minus {@code excludedPaths}, gateway path
+ * patterns), how long a request waits for the one already in flight and the largest response shared.
+ */
+@ConfigurationProperties("gateway.coalescing")
+public record CoalescingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("/PRODUCT-SERVICE/api/products/**") List<String> paths,
+        @DefaultValue({"/PRODUCT-SERVICE/api/products/events", "/PRODUCT-SERVICE/api/products/changes"}) List<String> excludedPaths,
+        @DefaultValue("1s") Duration maxWait,
+        @DefaultValue("1MB") DataSize maxBodySize
+) {
+}
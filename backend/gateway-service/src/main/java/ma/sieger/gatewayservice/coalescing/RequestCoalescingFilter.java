@@ -0,0 +1,244 @@
+package ma.sieger.gatewayservice.coalescing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Identical anonymous GET requests arriving while one of them is already on its way upstream wait for
+ * its response instead of being forwarded too: the first request (leader) captures the response as it
+ * streams to its client, and every request that joined meanwhile (follower) gets a copy.
+ * <p>
+ * Requests are identical when route, path, query and the headers that change the response (Accept*,
+ * conditional headers) are. Requests with credentials, cookies or a range are never coalesced.
+ * A follower goes upstream on its own after {@code max-wait}, or when the leader's response cannot be
+ * shared: too large, streamed, private, setting a cookie, or failed. Counted in
+ * {@code gateway.coalescing.requests} by route and outcome (leader, coalesced, fallback).
+ */
+public class RequestCoalescingFilter implements GlobalFilter, Ordered {
+
+    private static final List<String> KEY_HEADERS = List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING,
+            HttpHeaders.ACCEPT_LANGUAGE, HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE);
+    private static final List<String> PRIVATE_REQUEST_HEADERS = List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE,
+            HttpHeaders.RANGE);
+    // Depend on how the body is written, each follower's own write sets them
+    private static final List<String> FRAMING_HEADERS = List.of(HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING);
+
+    private final CoalescingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final List<PathPattern> paths;
+    private final List<PathPattern> excludedPaths;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescingFilter(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.paths = properties.paths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.excludedPaths = properties.excludedPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.enabled() || route == null || !isCoalescable(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+        String key = key(route, exchange.getRequest());
+        InFlight created = new InFlight();
+        InFlight existing = inFlight.putIfAbsent(key, created);
+        if (existing == null) {
+            return lead(exchange, chain, route, key, created);
+        }
+        return follow(exchange, chain, route, existing);
+    }
+
+    @Override
+    public int getOrder() {
+        // After rate limiting (followers use up their own tokens), before load balancing and routing
+        return Ordered.HIGHEST_PRECEDENCE + 200;
+    }
+
+    private Mono<Void> lead(ServerWebExchange exchange, GatewayFilterChain chain, Route route, String key, InFlight entry) {
+        count(route, "leader");
+        CapturingResponse response = new CapturingResponse(exchange.getResponse(), key, entry);
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signal -> {
+                    // Nothing captured (error, cancel, no body written): followers go upstream themselves
+                    inFlight.remove(key, entry);
+                    entry.sink.tryEmitEmpty();
+                });
+    }
+
+    private Mono<Void> follow(ServerWebExchange exchange, GatewayFilterChain chain, Route route, InFlight entry) {
+        return entry.sink.asMono()
+                .timeout(properties.maxWait(), Mono.empty())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(shared -> {
+                    if (shared.isEmpty()) {
+                        count(route, "fallback");
+                        return chain.filter(exchange);
+                    }
+                    count(route, "coalesced");
+                    return replay(exchange.getResponse(), shared.get());
+                });
+    }
+
+    // Headers already on the follower's response (CORS, rate limit) are its own and stay
+    private static Mono<Void> replay(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.status());
+        shared.headers().forEach((name, values) -> {
+            if (!response.getHeaders().containsHeader(name)) {
+                response.getHeaders().put(name, new ArrayList<>(values));
+            }
+        });
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(shared.body())));
+    }
+
+    private boolean isCoalescable(ServerHttpRequest request) {
+        if (request.getMethod() != HttpMethod.GET
+                || PRIVATE_REQUEST_HEADERS.stream().anyMatch(request.getHeaders()::containsHeader)) {
+            return false;
+        }
+        var path = request.getPath().pathWithinApplication();
+        return paths.stream().anyMatch(pattern -> pattern.matches(path))
+                && excludedPaths.stream().noneMatch(pattern -> pattern.matches(path));
+    }
+
+    private static String key(Route route, ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        StringBuilder key = new StringBuilder(route.getId()).append('\n').append(request.getURI().getRawPath());
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        KEY_HEADERS.forEach(header -> key.append('\n').append(request.getHeaders().get(header)));
+        return key.toString();
+    }
+
+    private void count(Route route, String outcome) {
+        meterRegistry.counter("gateway.coalescing.requests", "route", routeName(route), "outcome", outcome).increment();
+    }
+
+    // Same route names as the rate limit metrics (lb://PRODUCT-SERVICE -> PRODUCT-SERVICE)
+    private static String routeName(Route route) {
+        String host = route.getUri().getHost();
+        return "lb".equals(route.getUri().getScheme()) && host != null ? host : route.getId();
+    }
+
+    private static final class InFlight {
+        private final Sinks.One<SharedResponse> sink = Sinks.one();
+    }
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    /**
+     * Leader's response: forwards everything to the client and keeps a copy of the status, the headers set
+     * downstream of this filter and the body, published to the followers once the body is complete.
+     */
+    private final class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final HttpHeaders presetHeaders;
+        private final String key;
+        private final InFlight entry;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private boolean shareable = true;
+
+        private CapturingResponse(ServerHttpResponse delegate, String key, InFlight entry) {
+            super(delegate);
+            this.presetHeaders = HttpHeaders.copyOf(delegate.getHeaders());
+            this.key = key;
+            this.entry = entry;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            shareable = isShareable();
+            if (!shareable) {
+                giveUp();
+                return super.writeWith(body);
+            }
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(this::capture)
+                    .doOnComplete(this::publish));
+        }
+
+        // Streamed responses (server-sent events, NDJSON) are never shared
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            shareable = false;
+            giveUp();
+            return super.writeAndFlushWith(body);
+        }
+
+        private boolean isShareable() {
+            HttpHeaders headers = getHeaders();
+            String cacheControl = headers.getCacheControl();
+            return getStatusCode() != null
+                    && getCookies().isEmpty() && !headers.containsHeader(HttpHeaders.SET_COOKIE)
+                    && (cacheControl == null || !(cacheControl.contains("private") || cacheControl.contains("no-store")));
+        }
+
+        private void capture(DataBuffer buffer) {
+            if (!shareable) {
+                return;
+            }
+            int readable = buffer.readableByteCount();
+            if (body.size() + readable > properties.maxBodySize().toBytes()) {
+                shareable = false;
+                body.reset();
+                giveUp();
+                return;
+            }
+            byte[] bytes = new byte[readable];
+            int position = buffer.readPosition();
+            buffer.read(bytes);
+            buffer.readPosition(position);
+            body.writeBytes(bytes);
+        }
+
+        private void publish() {
+            if (!shareable) {
+                return;
+            }
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((name, values) -> {
+                if (!presetHeaders.containsHeader(name) && FRAMING_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                    headers.put(name, List.copyOf(values));
+                }
+            });
+            // Requests arriving from now on start a new upstream call
+            inFlight.remove(key, entry);
+            entry.sink.tryEmitValue(new SharedResponse(getStatusCode(), headers, body.toByteArray()));
+        }
+
+        private void giveUp() {
+            inFlight.remove(key, entry);
+            entry.sink.tryEmitEmpty();
+        }
+    }
+}
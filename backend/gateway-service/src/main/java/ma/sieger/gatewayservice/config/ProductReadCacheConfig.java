@@ -0,0 +1,43 @@
+package ma.sieger.gatewayservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Public catalog reads answered from a bounded in-memory cache in the gateway.
+ * <p>
+ * The route takes precedence over the discovery route of product-service for GET requests only;
+ * its cache belongs to the route and is keyed by URI (and Authorization/Cookie headers, so a signed-in
+ * user never gets another user's entry). Entries live for the configured time, product changes are
+ * not pushed to the gateway.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.cloud.gateway.server.webflux.filter.local-response-cache.enabled", havingValue = "true")
+public class ProductReadCacheConfig {
+
+    @Bean
+    public RouteLocator productReadCacheRoute(RouteLocatorBuilder builder,
+                                              @Value("${gateway.product-cache.time-to-live:10s}") Duration timeToLive,
+                                              @Value("${gateway.product-cache.size:50MB}") DataSize size) {
+        return builder.routes()
+                .route("product-service-cached-reads", route -> route.order(-1)
+                        .method(HttpMethod.GET)
+                        .and().path("/PRODUCT-SERVICE/api/products/**")
+                        // Change feeds (invalidation events, durable feed and its snapshot) must always be fresh
+                        .and().not(feeds -> feeds.path("/PRODUCT-SERVICE/api/products/events",
+                                "/PRODUCT-SERVICE/api/products/changes/**"))
+                        .filters(filters -> filters
+                                .rewritePath("/PRODUCT-SERVICE/?(?<remaining>.*)", "/${remaining}")
+                                .localResponseCache(timeToLive, size))
+                        .uri("lb://PRODUCT-SERVICE"))
+                .build();
+    }
+}
@@ -1,5 +1,8 @@
 package ma.sieger.gatewayservice.config;
 
+import ma.sieger.commons.security.CachingReactiveJwtDecoder;
+import ma.sieger.commons.security.KeycloakRoleConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,6 +11,7 @@ import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsConfigurationSource;
@@ -24,12 +28,16 @@ import java.util.List;
 public class SecurityConfig {
 
     @Bean
-    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http,
+                                                            ReactiveJwtDecoder jwtDecoder,
+                                                            @Value("${gateway.jwt-cache.max-size:10000}") long jwtCacheSize) {
         http
                 .csrf(ServerHttpSecurity.CsrfSpec::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeExchange(exchanges -> exchanges
-                        .pathMatchers("/eureka/**", "/actuator/**").permitAll()
+                        .pathMatchers("/eureka/**", "/actuator/health/**", "/actuator/info").permitAll()
+                        // Per-route latency and error metrics are not for the public edge
+                        .pathMatchers("/actuator/**").hasRole("ADMIN")
                         .pathMatchers("/webjars/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
 
                         .pathMatchers(HttpMethod.POST, "/PRODUCT-SERVICE/**").hasRole("ADMIN")
@@ -43,7 +51,9 @@ public class SecurityConfig {
                         .anyExchange().authenticated()
                 )
                 .oauth2ResourceServer(oauth2 -> oauth2
-                        .jwt(jwt -> jwt.jwtAuthenticationConverter(grantedAuthoritiesExtractor()))
+                        .jwt(jwt -> jwt
+                                .jwtDecoder(new CachingReactiveJwtDecoder(jwtDecoder, jwtCacheSize))
+                                .jwtAuthenticationConverter(grantedAuthoritiesExtractor()))
                 );
 
         return http.build();
@@ -0,0 +1,28 @@
+package ma.sieger.gatewayservice.loadbalancer;
+
+import ma.sieger.commons.loadbalancer.InstanceStatsRegistry;
+import ma.sieger.commons.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// Every lb:// route uses the latency-aware strategy,
+// unless disabled: the default round robin then applies
+@Configuration
+@ConditionalOnProperty(name = "gateway.load-balancer.latency-aware.enabled", havingValue = "true", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+    @Bean
+    public InstanceStatsRegistry instanceStatsRegistry(
+            @Value("${gateway.load-balancer.decay-time:PT10S}") Duration decayTime,
+            @Value("${gateway.load-balancer.ejection.consecutive-failures:5}") int ejectionFailures,
+            @Value("${gateway.load-balancer.ejection.duration:PT30S}") Duration ejectionDuration,
+            @Value("${gateway.load-balancer.in-flight-timeout:PT1M}") Duration inFlightTimeout) {
+        return new InstanceStatsRegistry(decayTime, ejectionFailures, ejectionDuration, inFlightTimeout, System::nanoTime);
+    }
+}
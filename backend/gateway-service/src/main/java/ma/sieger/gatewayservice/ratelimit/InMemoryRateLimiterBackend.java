@@ -0,0 +1,64 @@
+package ma.sieger.gatewayservice.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets kept as a single "theoretical arrival time" per key (GCRA), updated with a CAS loop,
+ * so taking a token never locks. Buckets live in a bounded Caffeine cache: one idle long enough to be
+ * full again is dropped, and when there are more clients than the cache holds the least recent ones
+ * start over with a full bucket.
+ */
+public class InMemoryRateLimiterBackend implements RateLimiterBackend {
+
+    private final Cache<String, Bucket> buckets;
+    private final LongSupplier nanoClock;
+
+    public InMemoryRateLimiterBackend(long maxClients) {
+        this(maxClients, System::nanoTime);
+    }
+
+    InMemoryRateLimiterBackend(long maxClients, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfter(Expiry.<String, Bucket>accessing((key, bucket) -> Duration.ofNanos(bucket.tolerance)))
+                .build();
+    }
+
+    @Override
+    public Mono<RateLimitDecision> tryAcquire(String key, RateLimit limit) {
+        long now = nanoClock.getAsLong();
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / limit.replenishRate());
+        Bucket bucket = buckets.get(key, k -> new Bucket(now, interval * limit.burstCapacity()));
+        while (true) {
+            long arrival = bucket.arrival.get();
+            long next = Math.max(arrival, now) + interval;
+            long excess = next - now - bucket.tolerance;
+            if (excess > 0) {
+                return Mono.just(RateLimitDecision.rejected(Duration.ofNanos(excess)));
+            }
+            if (bucket.arrival.compareAndSet(arrival, next)) {
+                return Mono.just(RateLimitDecision.allowed((bucket.tolerance - (next - now)) / interval));
+            }
+        }
+    }
+
+    private static final class Bucket {
+        // The bucket is full again once the clock reaches this value
+        private final AtomicLong arrival;
+        private final long tolerance;
+
+        private Bucket(long now, long tolerance) {
+            this.arrival = new AtomicLong(now);
+            this.tolerance = tolerance;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ma.sieger.gatewayservice.ratelimit;
+
+// Token bucket: refilled at replenishRate tokens per second, holding at most burstCapacity tokens
+public record RateLimit(double replenishRate, int burstCapacity) {
+
+    public RateLimit {
+        if (replenishRate <= 0 || burstCapacity < 1) {
+            throw new IllegalArgumentException("A rate limit needs a positive replenish rate and burst capacity");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ma.sieger.gatewayservice.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(RateLimiterBackend.class)
+    public RateLimiterBackend inMemoryRateLimiterBackend(RateLimitProperties properties) {
+        return new InMemoryRateLimiterBackend(properties.maxClients());
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties properties, RateLimiterBackend backend,
+                                           MeterRegistry meterRegistry) {
+        return new RateLimitFilter(properties, backend, meterRegistry);
+    }
+}
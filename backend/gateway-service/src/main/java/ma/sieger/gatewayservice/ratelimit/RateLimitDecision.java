@@ -0,0 +1,14 @@
+package ma.sieger.gatewayservice.ratelimit;
+
+import java.time.Duration;
+
+public record RateLimitDecision(boolean allowed, long remaining, Duration retryAfter) {
+
+    static RateLimitDecision allowed(long remaining) {
+        return new RateLimitDecision(true, remaining, Duration.ZERO);
+    }
+
+    static RateLimitDecision rejected(Duration retryAfter) {
+        return new RateLimitDecision(false, 0, retryAfter);
+    }
+}
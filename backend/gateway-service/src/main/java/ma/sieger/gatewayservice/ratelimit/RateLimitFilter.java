@@ -0,0 +1,94 @@
+package ma.sieger.gatewayservice.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Admission control in front of every route: one token per request from the bucket of the client,
+ * 429 with Retry-After once it is empty. Counted in {@code gateway.rate-limit.requests}, tagged by
+ * route, client type and outcome.
+ */
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private final RateLimitProperties properties;
+    private final RateLimiterBackend backend;
+    private final MeterRegistry meterRegistry;
+    private final RemoteAddressResolver remoteAddressResolver;
+
+    public RateLimitFilter(RateLimitProperties properties, RateLimiterBackend backend, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.backend = backend;
+        this.meterRegistry = meterRegistry;
+        this.remoteAddressResolver = properties.trustedProxies() > 0
+                ? XForwardedRemoteAddressResolver.maxTrustedIndex(properties.trustedProxies())
+                : new RemoteAddressResolver() { };
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.enabled() || route == null) {
+            return chain.filter(exchange);
+        }
+        String routeName = routeName(route);
+        return exchange.getPrincipal()
+                .filter(principal -> !(principal instanceof AnonymousAuthenticationToken))
+                .map(principal -> new Client(true, "sub:" + principal.getName()))
+                .switchIfEmpty(Mono.fromSupplier(() -> new Client(false, "ip:" + clientAddress(exchange))))
+                .flatMap(client -> backend
+                        .tryAcquire(routeName + "|" + client.key(), properties.limitFor(routeName, client.authenticated()))
+                        .flatMap(decision -> {
+                            meterRegistry.counter("gateway.rate-limit.requests",
+                                    "route", routeName,
+                                    "client", client.authenticated() ? "authenticated" : "anonymous",
+                                    "outcome", decision.allowed() ? "allowed" : "rejected").increment();
+                            if (decision.allowed()) {
+                                exchange.getResponse().getHeaders().set(REMAINING_HEADER, String.valueOf(decision.remaining()));
+                                return chain.filter(exchange);
+                            }
+                            return reject(exchange, decision);
+                        }));
+    }
+
+    @Override
+    public int getOrder() {
+        // Before anything does work for the request: load balancing, response cache, routing
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, RateLimitDecision decision) {
+        long retryAfterSeconds = Math.max(1, (decision.retryAfter().toMillis() + 999) / 1000);
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        exchange.getResponse().getHeaders().set(REMAINING_HEADER, "0");
+        exchange.getResponse().getHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+        return exchange.getResponse().setComplete();
+    }
+
+    private String clientAddress(ServerWebExchange exchange) {
+        InetSocketAddress address = remoteAddressResolver.resolve(exchange);
+        return address == null ? "unknown" : address.getHostString();
+    }
+
+    // Routes to the same service share their limits (lb://PRODUCT-SERVICE -> PRODUCT-SERVICE)
+    private static String routeName(Route route) {
+        String host = route.getUri().getHost();
+        return "lb".equals(route.getUri().getScheme()) && host != null ? host : route.getId();
+    }
+
+    private record Client(boolean authenticated, String key) {
+    }
+}
@@ -0,0 +1,42 @@
+package ma.sieger.gatewayservice.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Limits are per route, a route being the service it forwards to (e.g. PRODUCT-SERVICE). Anonymous
+ * clients are counted per IP address, authenticated ones per token subject. A route without an entry
+ * in {@code routes}, or with only one of the two limits, falls back to the global limits.
+ */
+@ConfigurationProperties("gateway.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        // Proxies in front of the gateway whose X-Forwarded-For entries are trusted, 0 uses the peer address
+        @DefaultValue("0") int trustedProxies,
+        @DefaultValue("100000") long maxClients,
+        RateLimit anonymous,
+        RateLimit authenticated,
+        Map<String, RouteLimits> routes
+) {
+
+    public RateLimitProperties {
+        anonymous = anonymous == null ? new RateLimit(20, 40) : anonymous;
+        authenticated = authenticated == null ? new RateLimit(50, 100) : authenticated;
+        routes = routes == null ? Map.of() : routes;
+    }
+
+    public record RouteLimits(RateLimit anonymous, RateLimit authenticated) {
+    }
+
+    public RateLimit limitFor(String route, boolean isAuthenticated) {
+        RouteLimits routeLimits = routes.get(route);
+        RateLimit routeLimit = routeLimits == null ? null
+                : isAuthenticated ? routeLimits.authenticated() : routeLimits.anonymous();
+        if (routeLimit != null) {
+            return routeLimit;
+        }
+        return isAuthenticated ? authenticated : anonymous;
+    }
+}
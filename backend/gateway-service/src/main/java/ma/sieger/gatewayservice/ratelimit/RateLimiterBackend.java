@@ -0,0 +1,13 @@
+package ma.sieger.gatewayservice.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Where the buckets live. The default keeps them in memory, so every gateway instance enforces the
+ * limits on its own; a shared store (e.g. Redis) can replace it by declaring another bean.
+ */
+public interface RateLimiterBackend {
+
+    // Takes one token from the bucket of the key, created full on first use
+    Mono<RateLimitDecision> tryAcquire(String key, RateLimit limit);
+}
@@ -0,0 +1,90 @@
+package ma.sieger.gatewayservice.coalescing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestCoalescingFilterTest {
+
+    private static final String BODY = "{\"id\":\"1\",\"name\":\"Clavier\"}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Route route = Route.async().id("product-service").uri("lb://PRODUCT-SERVICE")
+            .predicate(exchange -> true).build();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    // Answers after a while, so that concurrent requests overlap
+    private final GatewayFilterChain upstream = exchange -> {
+        upstreamCalls.incrementAndGet();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setETag("\"3-12\"");
+        return Mono.delay(Duration.ofMillis(100)).then(response.writeWith(
+                Mono.fromSupplier(() -> response.bufferFactory().wrap(BODY.getBytes(StandardCharsets.UTF_8)))));
+    };
+
+    @Test
+    void identicalConcurrentReadsShareOneUpstreamCall() {
+        RequestCoalescingFilter filter = filter(DataSize.ofKilobytes(1));
+        List<MockServerWebExchange> exchanges = List.of(exchange(null), exchange(null), exchange(null));
+
+        Mono.when(exchanges.stream().map(exchange -> filter.filter(exchange, upstream)).toList()).block();
+
+        assertEquals(1, upstreamCalls.get());
+        for (MockServerWebExchange exchange : exchanges) {
+            assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+            assertEquals("\"3-12\"", exchange.getResponse().getHeaders().getETag());
+            assertEquals(BODY, exchange.getResponse().getBodyAsString().block());
+        }
+        assertEquals(2.0, meterRegistry.get("gateway.coalescing.requests")
+                .tags("route", "PRODUCT-SERVICE", "outcome", "coalesced").counter().count());
+    }
+
+    @Test
+    void authenticatedOrOversizedResponsesAreNotShared() {
+        RequestCoalescingFilter filter = filter(DataSize.ofKilobytes(1));
+        Mono.when(filter.filter(exchange("Bearer token"), upstream), filter.filter(exchange("Bearer token"), upstream)).block();
+        assertEquals(2, upstreamCalls.get());
+
+        upstreamCalls.set(0);
+        RequestCoalescingFilter smallFilter = filter(DataSize.ofBytes(10));
+        MockServerWebExchange follower = exchange(null);
+        Mono.when(smallFilter.filter(exchange(null), upstream), smallFilter.filter(follower, upstream)).block();
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(BODY, follower.getResponse().getBodyAsString().block());
+    }
+
+    private RequestCoalescingFilter filter(DataSize maxBodySize) {
+        return new RequestCoalescingFilter(new CoalescingProperties(true, List.of("/PRODUCT-SERVICE/api/products/**"),
+                List.of("/PRODUCT-SERVICE/api/products/events"), Duration.ofSeconds(1), maxBodySize), meterRegistry);
+    }
+
+    private MockServerWebExchange exchange(String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/PRODUCT-SERVICE/api/products/1")
+                .accept(MediaType.APPLICATION_JSON);
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+}
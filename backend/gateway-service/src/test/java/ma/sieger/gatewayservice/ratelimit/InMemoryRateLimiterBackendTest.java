@@ -0,0 +1,39 @@
+package ma.sieger.gatewayservice.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryRateLimiterBackendTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final InMemoryRateLimiterBackend backend = new InMemoryRateLimiterBackend(1000, clock::get);
+    private final RateLimit limit = new RateLimit(2, 3);
+
+    @Test
+    void allowsTheBurstThenRefillsAtTheReplenishRate() {
+        assertEquals(2, acquire("ip:a").remaining());
+        assertEquals(1, acquire("ip:a").remaining());
+        assertEquals(0, acquire("ip:a").remaining());
+
+        RateLimitDecision rejected = acquire("ip:a");
+        assertFalse(rejected.allowed());
+        assertEquals(Duration.ofMillis(500), rejected.retryAfter());
+
+        // Other clients have their own bucket
+        assertTrue(acquire("ip:b").allowed());
+
+        clock.addAndGet(Duration.ofMillis(500).toNanos());
+        assertTrue(acquire("ip:a").allowed());
+        assertFalse(acquire("ip:a").allowed());
+    }
+
+    private RateLimitDecision acquire(String key) {
+        return backend.tryAcquire(key, limit).block();
+    }
+}
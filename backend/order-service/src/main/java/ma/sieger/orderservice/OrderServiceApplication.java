@@ -10,12 +10,14 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.List;
 import java.util.Map;
 
 @SpringBootApplication
 @EnableFeignClients
+@EnableScheduling
 public class OrderServiceApplication {
 
     public static void main(String[] args) {
@@ -30,7 +32,7 @@ public class OrderServiceApplication {
 
             try {
                 // 1. Fetch products from the Remote Product Service
-                List<Product> products = productRestClient.allProducts();
+                List<Product> products = productRestClient.findProducts(0, 1).getContent();
 
                 if (products.isEmpty()) {
                     System.out.println("⚠No products found in Product Service. Cannot create test order.");
@@ -51,10 +53,9 @@ public class OrderServiceApplication {
                 OrderResponseDTO savedOrder = orderService.placeOrder(request, "test-user-id");
 
                 // 5. Success!
-                System.out.println("✅ TEST SUCCESS! Order Created via Feign Client.");
+                System.out.println("✅ TEST SUCCESS! Order Created, stock is reserved asynchronously.");
                 System.out.println("Order ID: " + savedOrder.getId());
-                System.out.println("Total Amount: " + savedOrder.getTotalAmount());
-                System.out.println("Product in Order: " + savedOrder.getOrderLines().get(0).getProduct().getName());
+                System.out.println("Status: " + savedOrder.getStatus());
 
             } catch (Exception e) {
                 System.err.println("TEST FAILED: Could not connect to Product Service.");
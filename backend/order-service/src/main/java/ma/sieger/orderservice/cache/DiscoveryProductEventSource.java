@@ -0,0 +1,40 @@
+package ma.sieger.orderservice.cache;
+
+import ma.sieger.orderservice.model.ProductEvents;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+
+@Component
+public class DiscoveryProductEventSource implements ProductEventSource {
+
+    private static final String PRODUCT_SERVICE = "PRODUCT-SERVICE";
+
+    private final DiscoveryClient discoveryClient;
+    private final RestClient restClient;
+
+    public DiscoveryProductEventSource(DiscoveryClient discoveryClient, RestClient.Builder restClientBuilder) {
+        this.discoveryClient = discoveryClient;
+        this.restClient = restClientBuilder.build();
+    }
+
+    @Override
+    public List<String> instances() {
+        return discoveryClient.getInstances(PRODUCT_SERVICE).stream()
+                .map(ServiceInstance::getUri)
+                .map(Object::toString)
+                .toList();
+    }
+
+    @Override
+    public ProductEvents eventsSince(String instance, String expectedInstanceId, long sequence) {
+        return restClient.get()
+                .uri(instance + "/api/products/events?since={since}&instanceId={instanceId}",
+                        sequence, expectedInstanceId == null ? "" : expectedInstanceId)
+                .retrieve()
+                .body(ProductEvents.class);
+    }
+}
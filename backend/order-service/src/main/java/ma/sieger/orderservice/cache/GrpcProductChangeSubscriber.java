@@ -0,0 +1,123 @@
+package ma.sieger.orderservice.cache;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ma.sieger.orderservice.clients.ProductGrpcChannels;
+import ma.sieger.orderservice.grpc.proto.ProductCatalogGrpc;
+import ma.sieger.orderservice.grpc.proto.ProductChanges;
+import ma.sieger.orderservice.grpc.proto.WatchProductChangesRequest;
+import ma.sieger.orderservice.model.ProductEvent;
+import ma.sieger.orderservice.model.ProductEvents;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * gRPC transport only: keeps a change stream open to every product-service instance and hands each batch
+ * to {@link ProductCacheInvalidator} as soon as it is committed, instead of polling. A broken stream is
+ * reopened from its last position on the next reconnect round, the TTL bounds staleness meanwhile.
+ */
+@Component
+@ConditionalOnProperty(name = "order.product-client.transport", havingValue = "grpc")
+@Slf4j
+public class GrpcProductChangeSubscriber {
+
+    private final ProductGrpcChannels channels;
+    private final ProductCacheInvalidator invalidator;
+    private final Map<String, ClientCallStreamObserver<WatchProductChangesRequest>> streams = new ConcurrentHashMap<>();
+    private final Map<String, Position> positions = new ConcurrentHashMap<>();
+
+    public GrpcProductChangeSubscriber(ProductGrpcChannels channels, ProductCacheInvalidator invalidator) {
+        this.channels = channels;
+        this.invalidator = invalidator;
+    }
+
+    @Scheduled(fixedDelayString = "${order.product-cache.stream-reconnect-interval-ms:1000}")
+    public void connect() {
+        List<ServiceInstance> instances = channels.instances();
+        Set<String> keys = instances.stream().map(instance -> instance.getUri().toString()).collect(Collectors.toSet());
+        for (ServiceInstance instance : instances) {
+            String key = instance.getUri().toString();
+            if (!streams.containsKey(key)) {
+                try {
+                    open(key, instance);
+                } catch (RuntimeException e) {
+                    log.debug("Could not watch product changes of {}: {}", key, e.getMessage());
+                }
+            }
+        }
+        streams.forEach((key, stream) -> {
+            if (!keys.contains(key)) {
+                stream.cancel("Instance left the registry", null);
+            }
+        });
+        positions.keySet().retainAll(keys);
+        invalidator.retain(keys);
+    }
+
+    @PreDestroy
+    public void close() {
+        streams.values().forEach(stream -> stream.cancel("Shutting down", null));
+    }
+
+    private void open(String key, ServiceInstance instance) {
+        WatchProductChangesRequest.Builder request = WatchProductChangesRequest.newBuilder().setAfterSequence(-1);
+        Position position = positions.get(key);
+        if (position != null) {
+            request.setInstanceId(position.instanceId()).setAfterSequence(position.sequence());
+        }
+        ProductCatalogGrpc.newStub(channels.channel(instance)).watchProductChanges(request.build(),
+                new ClientResponseObserver<WatchProductChangesRequest, ProductChanges>() {
+                    private ClientCallStreamObserver<WatchProductChangesRequest> stream;
+
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<WatchProductChangesRequest> requestStream) {
+                        stream = requestStream;
+                        streams.put(key, requestStream);
+                    }
+
+                    @Override
+                    public void onNext(ProductChanges changes) {
+                        invalidator.apply(key, toEvents(changes));
+                        positions.put(key, new Position(changes.getInstanceId(), changes.getLatestSequence()));
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        streams.remove(key, stream);
+                        log.debug("Product change stream of {} closed: {}", key, error.getMessage());
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        streams.remove(key, stream);
+                    }
+                });
+    }
+
+    private static ProductEvents toEvents(ProductChanges changes) {
+        ProductEvents events = new ProductEvents();
+        events.setInstanceId(changes.getInstanceId());
+        events.setLatestSequence(changes.getLatestSequence());
+        events.setReset(changes.getReset());
+        events.setEvents(changes.getChangesList().stream().map(change -> {
+            ProductEvent event = new ProductEvent();
+            event.setSequence(change.getSequence());
+            event.setProductId(change.getProductId());
+            event.setType(change.getType());
+            return event;
+        }).toList());
+        return events;
+    }
+
+    private record Position(String instanceId, long sequence) {}
+}
@@ -0,0 +1,80 @@
+package ma.sieger.orderservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ma.sieger.orderservice.clients.ProductRequestHedger;
+import ma.sieger.orderservice.clients.ProductRestClient;
+import ma.sieger.orderservice.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Local, size and TTL bounded cache in front of {@link ProductRestClient}.
+ * The TTL is the hard staleness bound, invalidation events from product-service only shorten it.
+ */
+@Component
+public class ProductCache {
+
+    private final ProductRestClient productRestClient;
+    private final ProductRequestHedger hedger;
+    private final ProductLookupExecutor lookupExecutor;
+    private final int lookupBatchSize;
+    private final Cache<String, Product> cache;
+
+    public ProductCache(ProductRestClient productRestClient,
+                        ProductRequestHedger hedger,
+                        ProductLookupExecutor lookupExecutor,
+                        MeterRegistry meterRegistry,
+                        @Value("${order.product-cache.max-size:10000}") long maxSize,
+                        @Value("${order.product-cache.ttl:PT30S}") Duration ttl,
+                        @Value("${order.product-lookup.batch-size:100}") int lookupBatchSize) {
+        this.productRestClient = productRestClient;
+        this.hedger = hedger;
+        this.lookupExecutor = lookupExecutor;
+        this.lookupBatchSize = lookupBatchSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    public Product findProductById(String id) {
+        return cache.get(id, key -> hedger.call(() -> productRestClient.findProductById(key)));
+    }
+
+    // Only the misses go to product-service, split into batches fetched concurrently
+    public Map<String, Product> findProductsByIds(Collection<String> ids) {
+        return cache.getAll(ids, this::loadAll);
+    }
+
+    public void evict(String id) {
+        cache.invalidate(id);
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    private Map<String, Product> loadAll(Collection<? extends String> ids) {
+        List<String> misses = List.copyOf(ids);
+        List<List<String>> batches = new ArrayList<>();
+        for (int from = 0; from < misses.size(); from += lookupBatchSize) {
+            batches.add(misses.subList(from, Math.min(from + lookupBatchSize, misses.size())));
+        }
+        List<Product> products = lookupExecutor.invokeAll(batches,
+                batch -> hedger.call(() -> productRestClient.findProductsByIds(batch)));
+        return products.stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+}
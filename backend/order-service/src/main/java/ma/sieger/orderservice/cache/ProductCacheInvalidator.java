@@ -0,0 +1,82 @@
+package ma.sieger.orderservice.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.sieger.orderservice.model.ProductEvent;
+import ma.sieger.orderservice.model.ProductEvents;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tails the change events of every product-service instance and evicts the matching cache entries.
+ * Whenever an instance cannot tell what changed since our last position, the whole cache is dropped.
+ * With the gRPC transport the events are pushed by {@link GrpcProductChangeSubscriber} instead of polled.
+ */
+@Component
+@Slf4j
+public class ProductCacheInvalidator {
+
+    private final ProductCache productCache;
+    private final ProductEventSource productEventSource;
+    private final boolean polling;
+    private final Map<String, Position> positions = new ConcurrentHashMap<>();
+
+    public ProductCacheInvalidator(ProductCache productCache, ProductEventSource productEventSource,
+                                   @Value("${order.product-client.transport:feign}") String transport) {
+        this.productCache = productCache;
+        this.productEventSource = productEventSource;
+        this.polling = !"grpc".equals(transport);
+    }
+
+    @Scheduled(fixedDelayString = "${order.product-cache.invalidation-poll-interval-ms:1000}")
+    public void poll() {
+        if (!polling) {
+            return;
+        }
+        List<String> instances = productEventSource.instances();
+        for (String instance : instances) {
+            try {
+                poll(instance);
+            } catch (RuntimeException e) {
+                // The TTL still bounds staleness while an instance is unreachable
+                log.debug("Could not poll product events from {}: {}", instance, e.getMessage());
+            }
+        }
+        retain(instances);
+    }
+
+    // Every batch of an instance, polled or pushed, in order
+    public void apply(String instance, ProductEvents batch) {
+        Position position = positions.get(instance);
+        if (batch.isReset()) {
+            // First contact only tells us where the log stands, afterwards a reset means we missed events
+            if (position != null) {
+                productCache.evictAll();
+            }
+        } else if (batch.getEvents() != null) {
+            for (ProductEvent event : batch.getEvents()) {
+                productCache.evict(event.getProductId());
+            }
+        }
+        positions.put(instance, new Position(batch.getInstanceId(), batch.getLatestSequence()));
+    }
+
+    // Forgets the instances gone from the registry
+    public void retain(Collection<String> instances) {
+        positions.keySet().retainAll(instances);
+    }
+
+    private void poll(String instance) {
+        Position position = positions.get(instance);
+        apply(instance, position == null
+                ? productEventSource.eventsSince(instance, null, -1)
+                : productEventSource.eventsSince(instance, position.instanceId(), position.sequence()));
+    }
+
+    private record Position(String instanceId, long sequence) {}
+}
@@ -0,0 +1,14 @@
+package ma.sieger.orderservice.cache;
+
+import ma.sieger.orderservice.model.ProductEvents;
+
+import java.util.List;
+
+// Where product change events come from, swapped for an in-memory stand-in in tests
+public interface ProductEventSource {
+
+    // Every product-service instance keeps its own event log, so each one is polled separately
+    List<String> instances();
+
+    ProductEvents eventsSince(String instance, String expectedInstanceId, long sequence);
+}
@@ -0,0 +1,81 @@
+package ma.sieger.orderservice.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Runs remote product lookups concurrently on virtual threads. A semaphore bounds how many calls are
+ * in flight against product-service, the caller's security context (and so its JWT) is carried over
+ * to every task, and all tasks of a call share one deadline after which the remaining ones are cancelled.
+ */
+@Component
+public class ProductLookupExecutor {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final Duration timeout;
+
+    public ProductLookupExecutor(@Value("${order.product-lookup.max-concurrency:8}") int maxConcurrency,
+                                 @Value("${order.product-lookup.timeout:PT2S}") Duration timeout) {
+        this.executor = new DelegatingSecurityContextExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+        this.permits = new Semaphore(maxConcurrency);
+        this.timeout = timeout;
+    }
+
+    public <T, R> List<R> invokeAll(List<T> inputs, Function<T, List<R>> call) {
+        if (inputs.size() == 1) {
+            return call.apply(inputs.get(0));
+        }
+        List<Future<List<R>>> futures = new ArrayList<>(inputs.size());
+        for (T input : inputs) {
+            futures.add(executor.submit(() -> {
+                permits.acquire();
+                try {
+                    return call.apply(input);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<R> results = new ArrayList<>();
+        try {
+            for (Future<List<R>> future : futures) {
+                results.addAll(future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+            }
+            return results;
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Product lookup did not complete within " + timeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Product lookup interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Product lookup failed", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,100 @@
+package ma.sieger.orderservice.clients;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * One long-lived HTTP/2 channel per product-service instance, shared by all gRPC calls to it (calls are
+ * multiplexed, no per-call connection). Instances are picked by the same load balancer as Feign calls,
+ * and reached on the port they advertise in their {@code grpc-port} metadata.
+ */
+@Component
+@ConditionalOnProperty(name = "order.product-client.transport", havingValue = "grpc")
+public class ProductGrpcChannels {
+
+    static final String PRODUCT_SERVICE = "PRODUCT-SERVICE";
+    private static final String GRPC_PORT = "grpc-port";
+
+    private final LoadBalancerClient loadBalancerClient;
+    private final DiscoveryClient discoveryClient;
+    private final Duration keepAlive;
+    private final Map<String, ManagedChannel> channels = new ConcurrentHashMap<>();
+
+    public ProductGrpcChannels(LoadBalancerClient loadBalancerClient,
+                               DiscoveryClient discoveryClient,
+                               @Value("${order.product-client.grpc.keep-alive:PT30S}") Duration keepAlive) {
+        this.loadBalancerClient = loadBalancerClient;
+        this.discoveryClient = discoveryClient;
+        this.keepAlive = keepAlive;
+    }
+
+    public ServiceInstance choose() {
+        ServiceInstance instance = loadBalancerClient.choose(PRODUCT_SERVICE);
+        if (instance == null) {
+            throw Status.UNAVAILABLE.withDescription("No product-service instance available").asRuntimeException();
+        }
+        return instance;
+    }
+
+    public List<ServiceInstance> instances() {
+        return discoveryClient.getInstances(PRODUCT_SERVICE).stream()
+                .filter(instance -> instance.getMetadata().containsKey(GRPC_PORT))
+                .toList();
+    }
+
+    public ManagedChannel channel(ServiceInstance instance) {
+        String port = instance.getMetadata().get(GRPC_PORT);
+        if (port == null) {
+            throw Status.UNAVAILABLE.withDescription("Instance " + instance.getUri() + " does not serve gRPC")
+                    .asRuntimeException();
+        }
+        return channels.computeIfAbsent(target(instance.getHost(), port), target ->
+                Grpc.newChannelBuilder(target, InsecureChannelCredentials.create())
+                        .keepAliveTime(keepAlive.toNanos(), TimeUnit.NANOSECONDS)
+                        .build());
+    }
+
+    // Channels of instances gone from the registry
+    @Scheduled(fixedDelayString = "${order.product-client.grpc.channel-cleanup-interval-ms:60000}")
+    public void closeUnused() {
+        Set<String> targets = discoveryClient.getInstances(PRODUCT_SERVICE).stream()
+                .filter(instance -> instance.getMetadata().containsKey(GRPC_PORT))
+                .map(instance -> target(instance.getHost(), instance.getMetadata().get(GRPC_PORT)))
+                .collect(Collectors.toSet());
+        channels.entrySet().removeIf(entry -> {
+            if (targets.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().shutdown();
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channels.values().forEach(ManagedChannel::shutdownNow);
+        channels.clear();
+    }
+
+    private static String target(String host, String port) {
+        return host + ":" + port;
+    }
+}
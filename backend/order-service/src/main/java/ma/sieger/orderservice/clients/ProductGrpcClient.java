@@ -0,0 +1,163 @@
+package ma.sieger.orderservice.clients;
+
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.MetadataUtils;
+import ma.sieger.commons.loadbalancer.InstanceStatsRegistry;
+import ma.sieger.orderservice.dtos.OrderRequestDTO;
+import ma.sieger.orderservice.grpc.proto.DecreaseStockRequest;
+import ma.sieger.orderservice.grpc.proto.GetProductRequest;
+import ma.sieger.orderservice.grpc.proto.GetProductsRequest;
+import ma.sieger.orderservice.grpc.proto.ListProductsRequest;
+import ma.sieger.orderservice.grpc.proto.ProductCatalogGrpc;
+import ma.sieger.orderservice.grpc.proto.ReleaseStockRequest;
+import ma.sieger.orderservice.grpc.proto.ReserveStockRequest;
+import ma.sieger.orderservice.model.Product;
+import ma.sieger.orderservice.model.ProductPage;
+import ma.sieger.orderservice.model.ReservedProduct;
+import ma.sieger.orderservice.security.ProductServiceAuthorization;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * {@link ProductRestClient} over product-service's gRPC API instead of HTTP/1.1 JSON, when
+ * {@code order.product-client.transport=grpc}. Every call has a deadline, propagated to product-service;
+ * failures surface as {@link StatusRuntimeException} (NOT_FOUND, INVALID_ARGUMENT, ABORTED for the
+ * REST 404, 400 and 409). Latency and failures feed the same load balancer statistics as Feign calls.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "order.product-client.transport", havingValue = "grpc")
+public class ProductGrpcClient implements ProductRestClient {
+
+    private static final Metadata.Key<String> AUTHORIZATION =
+            Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+    // The instance could not serve the call, other codes are answers
+    private static final Set<Status.Code> INSTANCE_FAILURES = Set.of(Status.Code.UNAVAILABLE,
+            Status.Code.DEADLINE_EXCEEDED, Status.Code.INTERNAL, Status.Code.UNKNOWN, Status.Code.RESOURCE_EXHAUSTED);
+
+    private final ProductGrpcChannels channels;
+    private final ProductServiceAuthorization authorization;
+    private final ObjectProvider<InstanceStatsRegistry> statsRegistry;
+    private final Duration readDeadline;
+    private final Duration stockDeadline;
+
+    public ProductGrpcClient(ProductGrpcChannels channels,
+                             ProductServiceAuthorization authorization,
+                             ObjectProvider<InstanceStatsRegistry> statsRegistry,
+                             @Value("${order.product-client.grpc.read-deadline:PT1S}") Duration readDeadline,
+                             @Value("${order.product-client.grpc.stock-deadline:PT3S}") Duration stockDeadline) {
+        this.channels = channels;
+        this.authorization = authorization;
+        this.statsRegistry = statsRegistry;
+        this.readDeadline = readDeadline;
+        this.stockDeadline = stockDeadline;
+    }
+
+    @Override
+    public Product findProductById(String id) {
+        return toProduct(call(readDeadline, stub -> stub.getProduct(GetProductRequest.newBuilder().setId(id).build())));
+    }
+
+    @Override
+    public List<Product> findProductsByIds(Collection<String> ids) {
+        return call(readDeadline, stub -> stub.getProducts(GetProductsRequest.newBuilder().addAllIds(ids).build()))
+                .getProductsList().stream().map(ProductGrpcClient::toProduct).toList();
+    }
+
+    @Override
+    public ProductPage findProducts(int page, int size) {
+        ma.sieger.orderservice.grpc.proto.ProductPage response = call(readDeadline, stub ->
+                stub.listProducts(ListProductsRequest.newBuilder().setPage(page).setSize(size).build()));
+        ProductPage productPage = new ProductPage();
+        productPage.setContent(response.getContentList().stream().map(ProductGrpcClient::toProduct).toList());
+        productPage.setPage(response.getPage());
+        productPage.setSize(response.getSize());
+        productPage.setTotalElements(response.getTotalElements());
+        productPage.setTotalPages(response.getTotalPages());
+        return productPage;
+    }
+
+    @Override
+    public Product decreaseStock(String id, int quantity) {
+        return toProduct(call(stockDeadline, stub ->
+                stub.decreaseStock(DecreaseStockRequest.newBuilder().setId(id).setQuantity(quantity).build())));
+    }
+
+    @Override
+    public List<ReservedProduct> reserveStock(String reservationId, OrderRequestDTO orderRequest) {
+        ReserveStockRequest.Builder request = ReserveStockRequest.newBuilder().setReservationId(reservationId);
+        if (orderRequest.getProducts() != null) {
+            request.putAllProducts(orderRequest.getProducts());
+        }
+        return call(stockDeadline, stub -> stub.reserveStock(request.build()))
+                .getProductsList().stream().map(ProductGrpcClient::toReservedProduct).toList();
+    }
+
+    @Override
+    public void releaseStock(String reservationId) {
+        call(stockDeadline, stub -> stub.releaseStock(ReleaseStockRequest.newBuilder().setReservationId(reservationId).build()));
+    }
+
+    // The token is read here, on the calling thread, where the security context is
+    private <T> T call(Duration deadline, Function<ProductCatalogGrpc.ProductCatalogBlockingStub, T> rpc) {
+        ServiceInstance instance = channels.choose();
+        ProductCatalogGrpc.ProductCatalogBlockingStub stub = ProductCatalogGrpc.newBlockingStub(channels.channel(instance))
+                .withDeadlineAfter(deadline.toNanos(), TimeUnit.NANOSECONDS);
+        String header = authorization.header();
+        if (header != null) {
+            Metadata metadata = new Metadata();
+            metadata.put(AUTHORIZATION, header);
+            stub = stub.withInterceptors(MetadataUtils.newAttachHeadersInterceptor(metadata));
+        }
+        InstanceStatsRegistry registry = statsRegistry.getIfAvailable();
+        if (registry == null) {
+            return rpc.apply(stub);
+        }
+        long start = registry.now();
+        registry.onStart(instance);
+        boolean failed = true;
+        try {
+            T response = rpc.apply(stub);
+            failed = false;
+            return response;
+        } catch (StatusRuntimeException e) {
+            failed = INSTANCE_FAILURES.contains(e.getStatus().getCode());
+            throw e;
+        } finally {
+            registry.onComplete(instance, registry.now() - start, failed);
+        }
+    }
+
+    private static Product toProduct(ma.sieger.orderservice.grpc.proto.Product message) {
+        Product product = new Product();
+        product.setId(message.getId());
+        product.setName(message.getName());
+        product.setPrice(message.getPrice());
+        product.setQuantity(message.getQuantity());
+        product.setImageUrl(message.hasImageUrl() ? message.getImageUrl() : null);
+        return product;
+    }
+
+    private static ReservedProduct toReservedProduct(ma.sieger.orderservice.grpc.proto.ReservedProduct message) {
+        ReservedProduct product = new ReservedProduct();
+        product.setProductId(message.getProductId());
+        product.setName(message.getName());
+        product.setImageUrl(message.hasImageUrl() ? message.getImageUrl() : null);
+        product.setQuantity(message.getQuantity());
+        product.setUnitPrice(message.getUnitPrice());
+        return product;
+    }
+}
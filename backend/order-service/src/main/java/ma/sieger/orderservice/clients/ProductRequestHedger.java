@@ -0,0 +1,117 @@
+package ma.sieger.orderservice.clients;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests for idempotent reads against product-service. When the first attempt has not answered
+ * within the hedge delay, a second one is sent (the load balancer favours another instance, the first one
+ * has a request in flight) and the first successful response wins. Hedges are paid from a budget refilled
+ * by every request, so a slow product-service sees at most budget-ratio extra load. Never use this for stock changes.
+ */
+@Component
+public class ProductRequestHedger {
+
+    private static final long TOKEN = 1000;
+    private static final long MAX_TOKENS = 10 * TOKEN;
+
+    private final ExecutorService executor =
+            new DelegatingSecurityContextExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+    private final Duration hedgeDelay;
+    private final long refillPerRequest;
+    private final AtomicLong tokens = new AtomicLong(MAX_TOKENS);
+    private final Counter hedges;
+
+    public ProductRequestHedger(@Value("${order.product-client.hedge-delay:PT0.1S}") Duration hedgeDelay,
+                                @Value("${order.product-client.hedge-budget-ratio:0.1}") double budgetRatio,
+                                MeterRegistry meterRegistry) {
+        this.hedgeDelay = hedgeDelay;
+        this.refillPerRequest = Math.round(budgetRatio * TOKEN);
+        this.hedges = Counter.builder("order.product-client.hedges")
+                .description("Hedged requests sent to product-service")
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> request) {
+        tokens.accumulateAndGet(refillPerRequest, (current, refill) -> Math.min(MAX_TOKENS, current + refill));
+        CompletableFuture<T> first = CompletableFuture.supplyAsync(request, executor);
+        try {
+            return first.get(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (!withdrawToken()) {
+                return join(first);
+            }
+            hedges.increment();
+            return join(firstSuccessful(first, CompletableFuture.supplyAsync(request, executor)));
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Product request interrupted", e);
+        }
+    }
+
+    private boolean withdrawToken() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    // Fails only when both attempts have failed, with the last failure
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> first, CompletableFuture<T> second) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<T> attempt : List.of(first, second)) {
+            attempt.whenComplete((value, error) -> {
+                if (error == null) {
+                    result.complete(value);
+                } else if (failures.incrementAndGet() == 2) {
+                    result.completeExceptionally(error);
+                }
+            });
+        }
+        return result;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error instanceof RuntimeException runtime ? runtime : new RuntimeException(error);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,12 +1,19 @@
 package ma.sieger.orderservice.clients;
 
+import ma.sieger.orderservice.dtos.OrderRequestDTO;
 import ma.sieger.orderservice.model.Product;
+import ma.sieger.orderservice.model.ProductPage;
+import ma.sieger.orderservice.model.ReservedProduct;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Collection;
 import java.util.List;
 
 @FeignClient(name = "PRODUCT-SERVICE")
@@ -15,9 +22,19 @@ public interface ProductRestClient {
     @GetMapping("/api/products/{id}")
     Product findProductById(@PathVariable("id") String id);
 
+    @PostMapping("/api/products/batch")
+    List<Product> findProductsByIds(@RequestBody Collection<String> ids);
+
     @GetMapping("/api/products")
-    List<Product> allProducts();
+    ProductPage findProducts(@RequestParam("page") int page, @RequestParam("size") int size);
 
     @PutMapping("/api/products/{id}/decrease-stock")
     Product decreaseStock(@PathVariable("id") String id, @RequestParam("quantity") int quantity);
+
+    @PutMapping("/api/products/reservations/{reservationId}")
+    List<ReservedProduct> reserveStock(@PathVariable("reservationId") String reservationId,
+                                       @RequestBody OrderRequestDTO orderRequest);
+
+    @DeleteMapping("/api/products/reservations/{reservationId}")
+    void releaseStock(@PathVariable("reservationId") String reservationId);
 }
\ No newline at end of file
@@ -1,27 +1,49 @@
 package ma.sieger.orderservice.config;
 
 import feign.RequestInterceptor;
-import feign.RequestTemplate;
+import ma.sieger.orderservice.security.ProductServiceAuthorization;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 
 @Configuration
 public class FeignConfig {
 
     @Bean
-    public RequestInterceptor requestInterceptor() {
-        return new RequestInterceptor() {
-            @Override
-            public void apply(RequestTemplate template) {
-                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-                if (authentication != null && authentication.getCredentials() instanceof Jwt) {
-                    Jwt jwt = (Jwt) authentication.getCredentials();
-                    template.header("Authorization", "Bearer " + jwt.getTokenValue());
-                }
+    public RequestInterceptor requestInterceptor(ProductServiceAuthorization productServiceAuthorization) {
+        return template -> {
+            String authorization = productServiceAuthorization.header();
+            if (authorization != null) {
+                template.header(HttpHeaders.AUTHORIZATION, authorization);
             }
         };
     }
+
+    // Product responses in CBOR: smaller than JSON and cheaper to parse. JSON stays acceptable, so an
+    // instance without CBOR support still answers; request bodies are still sent as JSON
+    @Bean
+    @ConditionalOnProperty(name = "order.product-client.cbor.enabled", havingValue = "true")
+    public RequestInterceptor cborAcceptInterceptor() {
+        return template -> {
+            if (!template.headers().containsKey(HttpHeaders.ACCEPT)) {
+                template.header(HttpHeaders.ACCEPT, "application/cbor, application/json;q=0.9");
+            }
+        };
+    }
+
+    // Works outside of any HTTP request, unlike the default request-bound manager
+    @Bean
+    public OAuth2AuthorizedClientManager authorizedClientManager(ClientRegistrationRepository clientRegistrationRepository,
+                                                                 OAuth2AuthorizedClientService authorizedClientService) {
+        AuthorizedClientServiceOAuth2AuthorizedClientManager manager =
+                new AuthorizedClientServiceOAuth2AuthorizedClientManager(clientRegistrationRepository, authorizedClientService);
+        manager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder().clientCredentials().build());
+        return manager;
+    }
 }
@@ -0,0 +1,20 @@
+package ma.sieger.orderservice.config;
+
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ResilienceConfig {
+
+    // The time limiter runs Feign calls on this executor, the security context has to follow for FeignConfig to forward the JWT
+    @Bean
+    public Customizer<Resilience4JCircuitBreakerFactory> circuitBreakerExecutorCustomizer() {
+        return factory -> factory.configureExecutorService(
+                new DelegatingSecurityContextExecutorService(Executors.newVirtualThreadPerTaskExecutor()));
+    }
+}
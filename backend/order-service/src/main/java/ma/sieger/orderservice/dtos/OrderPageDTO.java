@@ -0,0 +1,16 @@
+package ma.sieger.orderservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageDTO {
+    private List<OrderResponseDTO> content;
+    // Opaque position of the last order of this page, null when there is nothing after it
+    private String nextCursor;
+}
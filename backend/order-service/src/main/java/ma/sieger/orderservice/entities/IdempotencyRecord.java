@@ -0,0 +1,25 @@
+package ma.sieger.orderservice.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Claim on an Idempotency-Key, scoped to the user who sent it; orderId is set once the order is committed
+@Entity
+@Table(name = "idempotency_keys")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class IdempotencyRecord {
+    @Id
+    private String id;
+
+    private String requestHash;
+
+    private String orderId;
+
+    private Instant createdAt;
+}
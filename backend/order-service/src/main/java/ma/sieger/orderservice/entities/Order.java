@@ -8,7 +8,11 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+// Back the keyset pages of OrderRepository, ordered by (date desc, id desc), for all orders and per user
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_date_id", columnList = "date, id"),
+        @Index(name = "idx_orders_user_date_id", columnList = "userId, date, id")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
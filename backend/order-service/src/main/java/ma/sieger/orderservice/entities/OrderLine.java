@@ -10,14 +10,20 @@ import lombok.*;
 @Setter
 @Builder
 public class OrderLine {
+    // Ids come from a pooled sequence, one round trip per 50 lines, so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_line_seq")
+    @SequenceGenerator(name = "order_line_seq", sequenceName = "order_line_seq", allocationSize = 50)
     private Long id;
 
     private String productId;
     private double price;
     private int quantity;
 
+    // Snapshot of the product at order time, so reads never depend on the live catalog
+    private String productName;
+    private String productImageUrl;
+
     @ManyToOne
     private Order order;
 }
\ No newline at end of file
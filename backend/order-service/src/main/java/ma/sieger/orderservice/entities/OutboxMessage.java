@@ -0,0 +1,38 @@
+package ma.sieger.orderservice.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ma.sieger.orderservice.enums.OutboxMessageType;
+
+import java.time.Instant;
+
+// Written in the same transaction as the order change it announces, delivered later by the outbox relay
+@Entity
+@Table(name = "outbox_messages", indexes = @Index(name = "idx_outbox_pending", columnList = "publishedAt, availableAt"))
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class OutboxMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private OutboxMessageType type;
+
+    private String orderId;
+
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    private Instant createdAt;
+
+    // Not picked up before this instant: retry backoff, or the lease of the relay delivering it
+    private Instant availableAt;
+
+    private int attempts;
+
+    private Instant publishedAt;
+}
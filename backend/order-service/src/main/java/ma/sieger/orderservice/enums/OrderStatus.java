@@ -1,5 +1,6 @@
 package ma.sieger.orderservice.enums;
 
 public enum OrderStatus {
-    CREATED, PENDING, DELIVERED, CANCELED
-}
\ No newline at end of file
+    // CREATED orders wait for their stock reservation, which moves them to CONFIRMED or REJECTED
+    CREATED, CONFIRMED, REJECTED, PENDING, DELIVERED, CANCELED
+}
@@ -0,0 +1,5 @@
+package ma.sieger.orderservice.enums;
+
+public enum OutboxMessageType {
+    RESERVE_STOCK, RELEASE_STOCK
+}
@@ -7,18 +7,25 @@ import ma.sieger.orderservice.entities.OrderLine;
 import ma.sieger.orderservice.model.Product;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class OrderMapper {
 
     public OrderResponseDTO fromOrder(Order order) {
+        return fromOrder(order, order.getOrderLines());
+    }
+
+    // Lines passed separately, for callers that load them in bulk rather than through the lazy collection
+    public OrderResponseDTO fromOrder(Order order, List<OrderLine> orderLines) {
         OrderResponseDTO response = new OrderResponseDTO();
         response.setId(order.getId());
         response.setDate(order.getDate());
         response.setStatus(order.getStatus());
 
         // Calculate total amount = sum of (price * quantity) for all lines
-        if (order.getOrderLines() != null) {
-            double total = order.getOrderLines().stream()
+        if (orderLines != null) {
+            double total = orderLines.stream()
                     .mapToDouble(line -> line.getPrice() * line.getQuantity())
                     .sum();
             response.setTotalAmount(total);
@@ -27,10 +34,17 @@ public class OrderMapper {
         return response;
     }
 
-    public OrderLineItemDTO fromOrderLine(OrderLine orderLine, Product product) {
+    public OrderLineItemDTO fromOrderLine(OrderLine orderLine) {
+        // The product is rebuilt from the snapshot taken when the order was placed
+        Product product = new Product();
+        product.setId(orderLine.getProductId());
+        product.setName(orderLine.getProductName());
+        product.setImageUrl(orderLine.getProductImageUrl());
+        product.setPrice(orderLine.getPrice());
+
         OrderLineItemDTO dto = new OrderLineItemDTO();
         dto.setId(orderLine.getId());
-        dto.setProduct(product); // We attach the full product info here
+        dto.setProduct(product);
         dto.setQuantity(orderLine.getQuantity());
         dto.setPrice(orderLine.getPrice());
         dto.setTotalLinePrice(orderLine.getPrice() * orderLine.getQuantity());
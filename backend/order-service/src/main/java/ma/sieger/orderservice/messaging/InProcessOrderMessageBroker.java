@@ -0,0 +1,20 @@
+package ma.sieger.orderservice.messaging;
+
+import ma.sieger.orderservice.services.OrderSaga;
+import org.springframework.stereotype.Component;
+
+// No external broker is deployed: messages go straight to the saga, a failure leaves them in the outbox
+@Component
+public class InProcessOrderMessageBroker implements OrderMessageBroker {
+
+    private final OrderSaga orderSaga;
+
+    public InProcessOrderMessageBroker(OrderSaga orderSaga) {
+        this.orderSaga = orderSaga;
+    }
+
+    @Override
+    public void publish(OrderMessage message) {
+        orderSaga.handle(message);
+    }
+}
@@ -0,0 +1,14 @@
+package ma.sieger.orderservice.messaging;
+
+import ma.sieger.orderservice.entities.OutboxMessage;
+import ma.sieger.orderservice.enums.OutboxMessageType;
+
+import java.time.Instant;
+
+public record OrderMessage(Long id, OutboxMessageType type, String orderId, String payload, Instant createdAt) {
+
+    public static OrderMessage of(OutboxMessage message) {
+        return new OrderMessage(message.getId(), message.getType(), message.getOrderId(),
+                message.getPayload(), message.getCreatedAt());
+    }
+}
@@ -0,0 +1,9 @@
+package ma.sieger.orderservice.messaging;
+
+/**
+ * Where the outbox relay hands messages to. Delivery is at least once: a message is published again
+ * until this returns normally, so consumers must be idempotent.
+ */
+public interface OrderMessageBroker {
+    void publish(OrderMessage message);
+}
@@ -0,0 +1,90 @@
+package ma.sieger.orderservice.messaging;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.sieger.orderservice.entities.OutboxMessage;
+import ma.sieger.orderservice.repositories.OutboxMessageRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Delivers pending outbox messages to the {@link OrderMessageBroker}. Messages are leased in a short
+ * transaction and published outside of it, so no database connection is held during delivery; a relay
+ * that dies mid-batch leaves them to be picked up again once the lease expires.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final OrderMessageBroker broker;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+
+    public OutboxRelay(OutboxMessageRepository outboxMessageRepository,
+                       OrderMessageBroker broker,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${order.outbox.batch-size:50}") int batchSize,
+                       @Value("${order.outbox.lease:PT1M}") Duration lease,
+                       @Value("${order.outbox.initial-backoff:PT1S}") Duration initialBackoff,
+                       @Value("${order.outbox.max-backoff:PT5M}") Duration maxBackoff,
+                       @Value("${order.outbox.retention:P7D}") Duration retention) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.broker = broker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms:200}")
+    public void relay() {
+        List<OutboxMessage> batch;
+        do {
+            batch = lease();
+            batch.forEach(this::deliver);
+        } while (batch.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.cleanup-interval-ms:3600000}")
+    public void deletePublished() {
+        outboxMessageRepository.deletePublishedBefore(Instant.now().minus(retention));
+    }
+
+    private List<OutboxMessage> lease() {
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<OutboxMessage> due = outboxMessageRepository.lockDue(now, batchSize);
+            due.forEach(message -> message.setAvailableAt(now.plus(lease)));
+            return due;
+        });
+    }
+
+    private void deliver(OutboxMessage message) {
+        try {
+            broker.publish(OrderMessage.of(message));
+            outboxMessageRepository.markPublished(message.getId(), Instant.now());
+        } catch (RuntimeException e) {
+            int attempts = message.getAttempts() + 1;
+            Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+            if (backoff.compareTo(maxBackoff) > 0) {
+                backoff = maxBackoff;
+            }
+            log.warn("Delivery of outbox message {} ({} for order {}) failed, attempt {}, retrying in {}: {}",
+                    message.getId(), message.getType(), message.getOrderId(), attempts, backoff, e.getMessage());
+            outboxMessageRepository.scheduleRetry(message.getId(), attempts, Instant.now().plus(backoff));
+        }
+    }
+}
@@ -8,4 +8,5 @@ public class Product {
     private String name;
     private double price;
     private int quantity;
+    private String imageUrl;
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package ma.sieger.orderservice.model;
+
+import lombok.Data;
+
+@Data
+public class ProductEvent {
+    private long sequence;
+    private String productId;
+    private String type;
+}
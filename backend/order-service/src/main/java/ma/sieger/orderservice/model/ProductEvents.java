@@ -0,0 +1,13 @@
+package ma.sieger.orderservice.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ProductEvents {
+    private String instanceId;
+    private long latestSequence;
+    private boolean reset;
+    private List<ProductEvent> events;
+}
@@ -0,0 +1,14 @@
+package ma.sieger.orderservice.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ProductPage {
+    private List<Product> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+}
@@ -0,0 +1,12 @@
+package ma.sieger.orderservice.model;
+
+import lombok.Data;
+
+@Data
+public class ReservedProduct {
+    private String productId;
+    private String name;
+    private String imageUrl;
+    private int quantity;
+    private double unitPrice;
+}
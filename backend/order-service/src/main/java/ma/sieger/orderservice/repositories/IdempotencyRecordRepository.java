@@ -0,0 +1,49 @@
+package ma.sieger.orderservice.repositories;
+
+import ma.sieger.orderservice.entities.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // 1 when the key is free, or when its previous claim never completed and is older than staleBefore
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert into idempotency_keys (id, request_hash, created_at) values (:id, :requestHash, :now)
+            on conflict (id) do update set request_hash = excluded.request_hash, created_at = excluded.created_at
+            where idempotency_keys.order_id is null and idempotency_keys.created_at < :staleBefore
+            """, nativeQuery = true)
+    int claim(@Param("id") String id,
+              @Param("requestHash") String requestHash,
+              @Param("now") Instant now,
+              @Param("staleBefore") Instant staleBefore);
+
+    // The conditions on the claim make both a no-op for a claim that was taken over by another instance
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.orderId = :orderId " +
+            "where r.id = :id and r.requestHash = :requestHash and r.createdAt = :claimedAt and r.orderId is null")
+    int complete(@Param("id") String id,
+                 @Param("requestHash") String requestHash,
+                 @Param("claimedAt") Instant claimedAt,
+                 @Param("orderId") String orderId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r " +
+            "where r.id = :id and r.requestHash = :requestHash and r.createdAt = :claimedAt and r.orderId is null")
+    int release(@Param("id") String id,
+                @Param("requestHash") String requestHash,
+                @Param("claimedAt") Instant claimedAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
@@ -1,7 +1,28 @@
 package ma.sieger.orderservice.repositories;
 
 import ma.sieger.orderservice.entities.OrderLine;
+import ma.sieger.orderservice.enums.OrderStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface OrderLineRepository extends JpaRepository<OrderLine, Long> {
+    // Lines still without a snapshot, outside orders the saga has yet to confirm (it writes their snapshot itself)
+    @Query("select l from OrderLine l where l.productName is null and l.order.status <> :pending " +
+            "and l.id > :id order by l.id")
+    List<OrderLine> findMissingSnapshotsAfter(@Param("id") Long id, @Param("pending") OrderStatus pending, Limit limit);
+
+    @Query("select l from OrderLine l where l.order.id in :orderIds")
+    List<OrderLine> findByOrderIdIn(@Param("orderIds") Collection<String> orderIds);
+
+    // Lines created while ids were an identity column are above a fresh sequence, it is moved past them
+    @Transactional
+    @Query(value = "select setval('order_line_seq', greatest((select coalesce(max(id), 1) from order_line), " +
+            "(select last_value from order_line_seq)))", nativeQuery = true)
+    long alignIdSequence();
 }
\ No newline at end of file
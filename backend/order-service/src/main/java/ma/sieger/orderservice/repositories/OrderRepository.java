@@ -1,10 +1,49 @@
 package ma.sieger.orderservice.repositories;
 
+import jakarta.persistence.QueryHint;
 import ma.sieger.orderservice.entities.Order;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, String> {
     List<Order> findByUserId(String userId);
-}
\ No newline at end of file
+
+    // Keyset pagination on (date, id): ids first, then orders and lines in one fetch join for the page
+    @Query("select o.id from Order o order by o.date desc, o.id desc")
+    List<String> findFirstPageIds(Pageable pageable);
+
+    @Query("select o.id from Order o where o.date < :date or (o.date = :date and o.id < :id) " +
+            "order by o.date desc, o.id desc")
+    List<String> findPageIdsAfter(@Param("date") LocalDate date, @Param("id") String id, Pageable pageable);
+
+    @Query("select o.id from Order o where o.userId = :userId order by o.date desc, o.id desc")
+    List<String> findFirstPageIdsByUserId(@Param("userId") String userId, Pageable pageable);
+
+    @Query("select o.id from Order o where o.userId = :userId " +
+            "and (o.date < :date or (o.date = :date and o.id < :id)) order by o.date desc, o.id desc")
+    List<String> findPageIdsByUserIdAfter(@Param("userId") String userId, @Param("date") LocalDate date,
+                                          @Param("id") String id, Pageable pageable);
+
+    // Forward-only cursor for exports: rows are fetched from the database in chunks as the stream is consumed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from Order o where (:from is null or o.date >= :from) and (:to is null or o.date <= :to) " +
+            "order by o.date, o.id")
+    Stream<Order> streamByDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @EntityGraph(attributePaths = "orderLines")
+    @Query("select distinct o from Order o where o.id in :ids order by o.date desc, o.id desc")
+    List<Order> findWithLinesByIdIn(@Param("ids") Collection<String> ids);
+}
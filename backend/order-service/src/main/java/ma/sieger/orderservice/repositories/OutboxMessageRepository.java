@@ -0,0 +1,38 @@
+package ma.sieger.orderservice.repositories;
+
+import ma.sieger.orderservice.entities.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    // Rows locked by another relay instance are skipped rather than waited for
+    @Query(value = """
+            select * from outbox_messages
+            where published_at is null and available_at <= :now
+            order by id limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<OutboxMessage> lockDue(@Param("now") Instant now, @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query("update OutboxMessage m set m.publishedAt = :publishedAt where m.id = :id")
+    int markPublished(@Param("id") Long id, @Param("publishedAt") Instant publishedAt);
+
+    @Transactional
+    @Modifying
+    @Query("update OutboxMessage m set m.attempts = :attempts, m.availableAt = :availableAt where m.id = :id")
+    int scheduleRetry(@Param("id") Long id, @Param("attempts") int attempts, @Param("availableAt") Instant availableAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxMessage m where m.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") Instant before);
+}
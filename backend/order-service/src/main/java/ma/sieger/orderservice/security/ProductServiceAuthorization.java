@@ -0,0 +1,48 @@
+package ma.sieger.orderservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authorization header of calls to product-service, over Feign or gRPC: the token of the user behind the
+ * current request, or order-service's own client credentials token when there is none.
+ */
+@Component
+@Slf4j
+public class ProductServiceAuthorization {
+
+    // Client credentials registration used when no user is behind the call (order saga, schedulers)
+    private static final String SERVICE_REGISTRATION = "order-service";
+
+    private final OAuth2AuthorizedClientManager authorizedClientManager;
+
+    public ProductServiceAuthorization(OAuth2AuthorizedClientManager authorizedClientManager) {
+        this.authorizedClientManager = authorizedClientManager;
+    }
+
+    // Null when no token could be obtained
+    public String header() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getCredentials() instanceof Jwt jwt) {
+            return "Bearer " + jwt.getTokenValue();
+        }
+        try {
+            OAuth2AuthorizedClient client = authorizedClientManager.authorize(OAuth2AuthorizeRequest
+                    .withClientRegistrationId(SERVICE_REGISTRATION)
+                    .principal(SERVICE_REGISTRATION)
+                    .build());
+            return client != null ? "Bearer " + client.getAccessToken().getTokenValue() : null;
+        } catch (OAuth2AuthorizationException e) {
+            // Public endpoints still work, protected ones answer 401 and are retried by their caller
+            log.warn("Could not obtain a service token: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package ma.sieger.orderservice.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import ma.sieger.orderservice.dtos.OrderRequestDTO;
+import ma.sieger.orderservice.dtos.OrderResponseDTO;
+import ma.sieger.orderservice.entities.IdempotencyRecord;
+import ma.sieger.orderservice.repositories.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Places an order at most once per Idempotency-Key. Keys live in a local TTL cache holding the
+ * in-flight or completed placement, so duplicates on this instance wait on the original; the
+ * idempotency_keys table is the fallback across instances and restarts. The key is committed with
+ * the order, a failed placement releases it so the client can retry.
+ * <p>
+ * A retry that finds the key still claimed waits up to wait-timeout, then gets a 409 "in progress".
+ * It only takes the claim over once it is older than claim-lease, which is meant for placements lost
+ * with their instance, and the order is only committed if its placement still owns the claim.
+ */
+@Service
+public class IdempotentOrderService {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+
+    private final OrderService orderService;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, CompletableFuture<Placement>> placements;
+    private final Duration waitTimeout;
+    private final Duration claimLease;
+    private final Duration retention;
+
+    public IdempotentOrderService(OrderService orderService,
+                                  IdempotencyRecordRepository idempotencyRecordRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${order.idempotency.cache-size:100000}") long cacheSize,
+                                  @Value("${order.idempotency.wait-timeout:PT10S}") Duration waitTimeout,
+                                  @Value("${order.idempotency.claim-lease:PT5M}") Duration claimLease,
+                                  @Value("${order.idempotency.retention:P1D}") Duration retention) {
+        this.orderService = orderService;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.placements = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(retention)
+                .build();
+        this.waitTimeout = waitTimeout;
+        this.claimLease = claimLease;
+        this.retention = retention;
+    }
+
+    public PlacedOrder placeOrder(String idempotencyKey, OrderRequestDTO orderRequest, String userId) {
+        String id = userId + ":" + idempotencyKey;
+        String requestHash = requestHash(orderRequest);
+
+        CompletableFuture<Placement> placement = new CompletableFuture<>();
+        CompletableFuture<Placement> original = placements.asMap().putIfAbsent(id, placement);
+        if (original != null) {
+            return replay(await(original), requestHash);
+        }
+
+        try {
+            PlacedOrder placed = placeOnce(id, requestHash, orderRequest, userId);
+            placement.complete(new Placement(requestHash, placed.order().getId()));
+            return placed;
+        } catch (RuntimeException e) {
+            placements.asMap().remove(id, placement);
+            placement.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.idempotency.cleanup-interval-ms:3600000}")
+    public void deleteExpiredKeys() {
+        idempotencyRecordRepository.deleteCreatedBefore(Instant.now().minus(retention));
+    }
+
+    private PlacedOrder placeOnce(String id, String requestHash, OrderRequestDTO orderRequest, String userId) {
+        Instant deadline = Instant.now().plus(waitTimeout);
+        while (true) {
+            // The column keeps microseconds, the claim is matched on it later
+            Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+            if (idempotencyRecordRepository.claim(id, requestHash, now, now.minus(claimLease)) == 1) {
+                return new PlacedOrder(placeAndComplete(id, requestHash, now, orderRequest, userId), false);
+            }
+
+            // Claimed by another instance, or by this one before a restart
+            Optional<IdempotencyRecord> record = idempotencyRecordRepository.findById(id);
+            if (record.isPresent() && record.get().getOrderId() != null) {
+                return replay(new Placement(record.get().getRequestHash(), record.get().getOrderId()), requestHash);
+            }
+            if (record.isPresent() && !record.get().getRequestHash().equals(requestHash)) {
+                throw keyReused();
+            }
+            if (Instant.now().isAfter(deadline)) {
+                throw inProgress();
+            }
+            sleep();
+        }
+    }
+
+    private OrderResponseDTO placeAndComplete(String id, String requestHash, Instant claimedAt,
+                                              OrderRequestDTO orderRequest, String userId) {
+        try {
+            return transactionTemplate.execute(status -> {
+                OrderResponseDTO order = orderService.placeOrder(orderRequest, userId);
+                // Taken over after the claim lease ran out: the other placement owns the key, this order rolls back
+                if (idempotencyRecordRepository.complete(id, requestHash, claimedAt, order.getId()) == 0) {
+                    throw inProgress();
+                }
+                return order;
+            });
+        } catch (RuntimeException e) {
+            idempotencyRecordRepository.release(id, requestHash, claimedAt);
+            throw e;
+        }
+    }
+
+    private PlacedOrder replay(Placement placement, String requestHash) {
+        if (!placement.requestHash().equals(requestHash)) {
+            throw keyReused();
+        }
+        return new PlacedOrder(orderService.getOrderById(placement.orderId()), true);
+    }
+
+    private Placement await(CompletableFuture<Placement> original) {
+        try {
+            return original.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        }
+    }
+
+    // Product ids sorted so that the same order always hashes the same way
+    private static String requestHash(OrderRequestDTO orderRequest) {
+        String canonical = orderRequest.getProducts() == null ? "" : new TreeMap<>(orderRequest.getProducts()).toString();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ResponseStatusException keyReused() {
+        return new ResponseStatusException(HttpStatus.UNPROCESSABLE_CONTENT,
+                "Idempotency-Key already used with a different request");
+    }
+
+    private static ResponseStatusException inProgress() {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "A request with this Idempotency-Key is still being processed");
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        }
+    }
+
+    public record PlacedOrder(OrderResponseDTO order, boolean replayed) {}
+
+    private record Placement(String requestHash, String orderId) {}
+}
@@ -0,0 +1,70 @@
+package ma.sieger.orderservice.services;
+
+import ma.sieger.orderservice.dtos.OrderPageDTO;
+import ma.sieger.orderservice.dtos.OrderRequestDTO;
+import ma.sieger.orderservice.dtos.OrderResponseDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * Offloaded execution mode: the blocking JPA work of {@link OrderService} runs on the bounded elastic
+ * scheduler instead of the request thread, and lists can be streamed at the client's pace. Nothing here is
+ * non-blocking: every call still holds a bounded elastic thread and a connection until it returns.
+ */
+@Service
+@ConditionalOnProperty(name = "order.execution-mode", havingValue = "offloaded")
+public class OffloadedOrderService {
+
+    private final OrderService orderService;
+    private final int streamPageSize;
+
+    public OffloadedOrderService(OrderService orderService,
+                                @Value("${order.offloaded.stream-page-size:100}") int streamPageSize) {
+        this.orderService = orderService;
+        this.streamPageSize = streamPageSize;
+    }
+
+    public Mono<OrderResponseDTO> placeOrder(OrderRequestDTO orderRequest, String userId) {
+        return blocking(() -> orderService.placeOrder(orderRequest, userId));
+    }
+
+    public Mono<OrderResponseDTO> getOrderById(String id) {
+        return blocking(() -> orderService.getOrderById(id));
+    }
+
+    public Mono<OrderPageDTO> getAllOrders(String cursor, int size) {
+        return blocking(() -> orderService.getAllOrders(cursor, size));
+    }
+
+    public Mono<OrderPageDTO> getOrdersByUserId(String userId, String cursor, int size) {
+        return blocking(() -> orderService.getOrdersByUserId(userId, cursor, size));
+    }
+
+    public Flux<OrderResponseDTO> streamAllOrders() {
+        return stream(cursor -> orderService.getAllOrders(cursor, streamPageSize));
+    }
+
+    public Flux<OrderResponseDTO> streamOrdersByUserId(String userId) {
+        return stream(cursor -> orderService.getOrdersByUserId(userId, cursor, streamPageSize));
+    }
+
+    // Walks the keyset pages lazily: the next page is only read once the client has consumed the previous one
+    private Flux<OrderResponseDTO> stream(Function<String, OrderPageDTO> pageLoader) {
+        return blocking(() -> pageLoader.apply(null))
+                .expand(page -> page.getNextCursor() == null
+                        ? Mono.empty()
+                        : blocking(() -> pageLoader.apply(page.getNextCursor())))
+                .concatMapIterable(OrderPageDTO::getContent, 1);
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
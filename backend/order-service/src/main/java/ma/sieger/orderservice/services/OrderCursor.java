@@ -0,0 +1,33 @@
+package ma.sieger.orderservice.services;
+
+import ma.sieger.orderservice.entities.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+// Position in the (date desc, id desc) ordering, exchanged with clients as an opaque string
+record OrderCursor(LocalDate date, String id) {
+
+    static OrderCursor of(Order order) {
+        return new OrderCursor(order.getDate(), order.getId());
+    }
+
+    static OrderCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            return new OrderCursor(LocalDate.parse(decoded.substring(0, separator)), decoded.substring(separator + 1));
+        } catch (RuntimeException e) {
+            // A cursor the client tampered with or truncated, not a server fault
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+        }
+    }
+
+    String encode() {
+        String raw = date + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
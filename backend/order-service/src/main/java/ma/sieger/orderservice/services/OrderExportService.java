@@ -0,0 +1,130 @@
+package ma.sieger.orderservice.services;
+
+import jakarta.persistence.EntityManager;
+import ma.sieger.orderservice.cache.ProductCache;
+import ma.sieger.orderservice.dtos.OrderLineItemDTO;
+import ma.sieger.orderservice.dtos.OrderResponseDTO;
+import ma.sieger.orderservice.entities.Order;
+import ma.sieger.orderservice.entities.OrderLine;
+import ma.sieger.orderservice.mappers.OrderMapper;
+import ma.sieger.orderservice.model.Product;
+import ma.sieger.orderservice.repositories.OrderLineRepository;
+import ma.sieger.orderservice.repositories.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes orders as newline-delimited JSON while reading them through a forward-only cursor.
+ * Orders are handled in fixed-size batches that are detached once written, so memory stays flat
+ * whatever the number of orders exported.
+ */
+@Service
+public class OrderExportService {
+
+    private static final byte NEW_LINE = '\n';
+
+    private final OrderRepository orderRepository;
+    private final OrderLineRepository orderLineRepository;
+    private final OrderMapper orderMapper;
+    private final ProductCache productCache;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final JsonMapper jsonMapper;
+    private final int batchSize;
+
+    public OrderExportService(OrderRepository orderRepository,
+                              OrderLineRepository orderLineRepository,
+                              OrderMapper orderMapper,
+                              ProductCache productCache,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              JsonMapper jsonMapper,
+                              @Value("${order.export.batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.orderLineRepository = orderLineRepository;
+        this.orderMapper = orderMapper;
+        this.productCache = productCache;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonMapper = jsonMapper;
+        this.batchSize = batchSize;
+    }
+
+    public void exportOrders(LocalDate from, LocalDate to, OutputStream out) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Order> orders = orderRepository.streamByDateBetween(from, to)) {
+                List<Order> batch = new ArrayList<>(batchSize);
+                orders.forEach(order -> {
+                    batch.add(order);
+                    if (batch.size() == batchSize) {
+                        writeBatch(batch, out);
+                        batch.clear();
+                    }
+                });
+                writeBatch(batch, out);
+            }
+        });
+    }
+
+    private void writeBatch(List<Order> orders, OutputStream out) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<String> orderIds = orders.stream().map(Order::getId).toList();
+        Map<String, List<OrderLine>> linesByOrder = orderLineRepository.findByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(line -> line.getOrder().getId()));
+        Map<String, Product> missingSnapshots = loadMissingSnapshots(linesByOrder);
+
+        try {
+            for (Order order : orders) {
+                List<OrderLine> lines = linesByOrder.getOrDefault(order.getId(), List.of());
+                OrderResponseDTO response = orderMapper.fromOrder(order, lines);
+                response.setOrderLines(lines.stream()
+                        .map(line -> toLineItem(line, missingSnapshots))
+                        .collect(Collectors.toList()));
+                out.write(jsonMapper.writeValueAsBytes(response));
+                out.write(NEW_LINE);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Detach the batch so the persistence context does not grow with the export
+        entityManager.clear();
+    }
+
+    // Lines placed before the product snapshot existed are enriched with one batch lookup per export batch
+    private Map<String, Product> loadMissingSnapshots(Map<String, List<OrderLine>> linesByOrder) {
+        Set<String> productIds = linesByOrder.values().stream()
+                .flatMap(List::stream)
+                .filter(line -> line.getProductName() == null)
+                .map(OrderLine::getProductId)
+                .collect(Collectors.toSet());
+        return productIds.isEmpty() ? Map.of() : productCache.findProductsByIds(productIds);
+    }
+
+    private OrderLineItemDTO toLineItem(OrderLine line, Map<String, Product> missingSnapshots) {
+        OrderLineItemDTO lineItem = orderMapper.fromOrderLine(line);
+        Product current = missingSnapshots.get(line.getProductId());
+        if (line.getProductName() == null && current != null) {
+            lineItem.getProduct().setName(current.getName());
+            lineItem.getProduct().setImageUrl(current.getImageUrl());
+        }
+        return lineItem;
+    }
+}
@@ -0,0 +1,30 @@
+package ma.sieger.orderservice.services;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import ma.sieger.orderservice.repositories.OrderLineRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps {@code order_line_seq} ahead of the ids already in {@code order_line}.
+ * <p>
+ * Order lines used to get their id from an identity column; the sequence that replaced it starts at 1
+ * on an existing database. The pooled optimizer hands out the block above the sequence value, so moving
+ * the sequence to the highest id is enough. It never moves backwards, which makes it safe to run on
+ * every start of every instance. It runs before the web server starts, so no order is placed first.
+ */
+@Component
+@Slf4j
+public class OrderLineIdSequence {
+
+    private final OrderLineRepository orderLineRepository;
+
+    public OrderLineIdSequence(OrderLineRepository orderLineRepository) {
+        this.orderLineRepository = orderLineRepository;
+    }
+
+    @PostConstruct
+    public void align() {
+        log.debug("order_line_seq set to {}", orderLineRepository.alignIdSequence());
+    }
+}
@@ -0,0 +1,86 @@
+package ma.sieger.orderservice.services;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.sieger.orderservice.cache.ProductCache;
+import ma.sieger.orderservice.entities.OrderLine;
+import ma.sieger.orderservice.enums.OrderStatus;
+import ma.sieger.orderservice.model.Product;
+import ma.sieger.orderservice.repositories.OrderLineRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * One-off job filling the product snapshot of order lines created before it was stored on the line.
+ * Enable it with {@code order.snapshot-backfill.enabled=true}; lines whose product no longer exists
+ * are left untouched, and so are the lines of CREATED orders, which get their snapshot from the reservation
+ * when the saga confirms them.
+ */
+@Component
+@Slf4j
+public class OrderLineSnapshotBackfill {
+
+    private final OrderLineRepository orderLineRepository;
+    private final ProductCache productCache;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public OrderLineSnapshotBackfill(OrderLineRepository orderLineRepository,
+                                     ProductCache productCache,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${order.snapshot-backfill.enabled:false}") boolean enabled,
+                                     @Value("${order.snapshot-backfill.batch-size:500}") int batchSize) {
+        this.orderLineRepository = orderLineRepository;
+        this.productCache = productCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        long lastId = 0;
+        int updated = 0;
+        while (true) {
+            long after = lastId;
+            List<OrderLine> lines = orderLineRepository
+                    .findMissingSnapshotsAfter(after, OrderStatus.CREATED, Limit.of(batchSize));
+            if (lines.isEmpty()) {
+                break;
+            }
+            updated += transactionTemplate.execute(status -> fillSnapshots(lines));
+            lastId = lines.get(lines.size() - 1).getId();
+        }
+        log.info("Order line snapshot backfill done, {} lines updated", updated);
+    }
+
+    private int fillSnapshots(List<OrderLine> lines) {
+        Set<String> productIds = lines.stream().map(OrderLine::getProductId).collect(Collectors.toSet());
+        Map<String, Product> products = productCache.findProductsByIds(productIds);
+
+        int updated = 0;
+        for (OrderLine line : lines) {
+            Product product = products.get(line.getProductId());
+            if (product != null) {
+                line.setProductName(product.getName());
+                line.setProductImageUrl(product.getImageUrl());
+                updated++;
+            }
+        }
+        orderLineRepository.saveAll(lines);
+        return updated;
+    }
+}
@@ -0,0 +1,86 @@
+package ma.sieger.orderservice.services;
+
+import feign.FeignException;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import lombok.extern.slf4j.Slf4j;
+import ma.sieger.orderservice.clients.ProductRestClient;
+import ma.sieger.orderservice.dtos.OrderRequestDTO;
+import ma.sieger.orderservice.messaging.OrderMessage;
+import ma.sieger.orderservice.model.ReservedProduct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Drives a placed order to CONFIRMED or REJECTED. The reservation is keyed by the order id, so
+ * redelivered messages are harmless. Technical failures are thrown back for the outbox to retry until
+ * the reservation timeout; past it the order is rejected and whatever may have been reserved is released.
+ */
+@Service
+@Slf4j
+public class OrderSaga {
+
+    private final OrderService orderService;
+    private final ProductRestClient productRestClient;
+    private final JsonMapper jsonMapper;
+    private final Duration reservationTimeout;
+
+    public OrderSaga(OrderService orderService,
+                     ProductRestClient productRestClient,
+                     JsonMapper jsonMapper,
+                     @Value("${order.saga.reservation-timeout:PT2M}") Duration reservationTimeout) {
+        this.orderService = orderService;
+        this.productRestClient = productRestClient;
+        this.jsonMapper = jsonMapper;
+        this.reservationTimeout = reservationTimeout;
+    }
+
+    public void handle(OrderMessage message) {
+        switch (message.type()) {
+            case RESERVE_STOCK -> reserveStock(message);
+            case RELEASE_STOCK -> productRestClient.releaseStock(message.orderId());
+        }
+    }
+
+    private void reserveStock(OrderMessage message) {
+        OrderRequestDTO orderRequest = jsonMapper.readValue(message.payload(), OrderRequestDTO.class);
+        List<ReservedProduct> reservedProducts;
+        try {
+            reservedProducts = productRestClient.reserveStock(message.orderId(), orderRequest);
+        } catch (RuntimeException e) {
+            if (isRefusal(e)) {
+                log.info("Stock reservation refused for order {}: {}", message.orderId(), e.getMessage());
+                orderService.rejectOrder(message.orderId(), false);
+                return;
+            }
+            if (Instant.now().isAfter(message.createdAt().plus(reservationTimeout))) {
+                log.warn("Giving up on the stock reservation of order {}: {}", message.orderId(), e.getMessage());
+                orderService.rejectOrder(message.orderId(), true);
+                return;
+            }
+            throw e;
+        }
+        orderService.confirmOrder(message.orderId(), reservedProducts);
+    }
+
+    // 400 (invalid or insufficient stock), 404 (unknown product) and 409 (already released) are final answers,
+    // INVALID_ARGUMENT, NOT_FOUND and ABORTED over gRPC
+    private static boolean isRefusal(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FeignException feignException) {
+                int status = feignException.status();
+                return status == 400 || status == 404 || status == 409;
+            }
+            if (cause instanceof StatusRuntimeException statusException) {
+                Status.Code code = statusException.getStatus().getCode();
+                return code == Status.Code.INVALID_ARGUMENT || code == Status.Code.NOT_FOUND || code == Status.Code.ABORTED;
+            }
+        }
+        return false;
+    }
+}
@@ -1,13 +1,18 @@
 package ma.sieger.orderservice.services;
 
+import ma.sieger.orderservice.dtos.OrderPageDTO;
 import ma.sieger.orderservice.dtos.OrderRequestDTO;
 import ma.sieger.orderservice.dtos.OrderResponseDTO;
+import ma.sieger.orderservice.model.ReservedProduct;
 
 import java.util.List;
 
 public interface OrderService {
     OrderResponseDTO placeOrder(OrderRequestDTO orderRequest, String userId);
+    // Saga steps: the reservation outcome for an order placed as CREATED
+    void confirmOrder(String orderId, List<ReservedProduct> reservedProducts);
+    void rejectOrder(String orderId, boolean releaseStock);
     OrderResponseDTO getOrderById(String id);
-    List<OrderResponseDTO> getAllOrders();
-    List<OrderResponseDTO> getOrdersByUserId(String userId);
+    OrderPageDTO getAllOrders(String cursor, int size);
+    OrderPageDTO getOrdersByUserId(String userId, String cursor, int size);
 }
\ No newline at end of file
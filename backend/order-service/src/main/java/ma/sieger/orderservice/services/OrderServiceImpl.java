@@ -1,22 +1,30 @@
 package ma.sieger.orderservice.services;
 
-import ma.sieger.orderservice.clients.ProductRestClient;
 import ma.sieger.orderservice.dtos.OrderLineItemDTO;
+import ma.sieger.orderservice.dtos.OrderPageDTO;
 import ma.sieger.orderservice.dtos.OrderRequestDTO;
 import ma.sieger.orderservice.dtos.OrderResponseDTO;
 import ma.sieger.orderservice.entities.Order;
 import ma.sieger.orderservice.entities.OrderLine;
+import ma.sieger.orderservice.entities.OutboxMessage;
 import ma.sieger.orderservice.enums.OrderStatus;
+import ma.sieger.orderservice.enums.OutboxMessageType;
 import ma.sieger.orderservice.mappers.OrderMapper;
-import ma.sieger.orderservice.model.Product;
-import ma.sieger.orderservice.repositories.OrderLineRepository;
+import ma.sieger.orderservice.model.ReservedProduct;
 import ma.sieger.orderservice.repositories.OrderRepository;
+import ma.sieger.orderservice.repositories.OutboxMessageRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,54 +32,91 @@ import java.util.stream.Collectors;
 public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
-    private final OrderLineRepository orderLineRepository;
-    private final ProductRestClient productRestClient;
+    private final OutboxMessageRepository outboxMessageRepository;
     private final OrderMapper orderMapper;
+    private final JsonMapper jsonMapper;
 
     public OrderServiceImpl(OrderRepository orderRepository,
-                            OrderLineRepository orderLineRepository,
-                            ProductRestClient productRestClient,
-                            OrderMapper orderMapper) {
+                            OutboxMessageRepository outboxMessageRepository,
+                            OrderMapper orderMapper,
+                            JsonMapper jsonMapper) {
         this.orderRepository = orderRepository;
-        this.orderLineRepository = orderLineRepository;
-        this.productRestClient = productRestClient;
+        this.outboxMessageRepository = outboxMessageRepository;
         this.orderMapper = orderMapper;
+        this.jsonMapper = jsonMapper;
     }
 
+    // Only a local write: stock is reserved afterwards by the order saga, through the outbox
     @Override
     public OrderResponseDTO placeOrder(OrderRequestDTO orderRequest, String userId) {
+        if (orderRequest.getProducts() == null || orderRequest.getProducts().isEmpty()) {
+            throw new RuntimeException("Order must contain at least one product");
+        }
+
         Order order = new Order();
         order.setUserId(userId);
         order.setDate(LocalDate.now());
         order.setStatus(OrderStatus.CREATED);
-
         order.setOrderLines(new ArrayList<>());
 
-        Order savedOrder = orderRepository.save(order);
-
         orderRequest.getProducts().forEach((productId, quantity) -> {
-            Product product = productRestClient.findProductById(productId);
-
-            // Verify stock availability
-            if (product.getQuantity() < quantity) {
-                throw new RuntimeException("Insufficient stock for product: " + product.getName() + 
-                    ". Available: " + product.getQuantity() + ", Requested: " + quantity);
+            if (quantity == null || quantity <= 0) {
+                throw new RuntimeException("Invalid quantity for product " + productId + ": " + quantity);
             }
-
-            // Decrease stock in product service
-            productRestClient.decreaseStock(productId, quantity);
-
             OrderLine orderLine = new OrderLine();
             orderLine.setProductId(productId);
-            orderLine.setPrice(product.getPrice());
             orderLine.setQuantity(quantity);
-            orderLine.setOrder(savedOrder);
+            orderLine.setOrder(order);
+            order.getOrderLines().add(orderLine);
+        });
 
-            orderLineRepository.save(orderLine);
-            savedOrder.getOrderLines().add(orderLine);
+        Order savedOrder = orderRepository.save(order);
+        enqueue(savedOrder.getId(), OutboxMessageType.RESERVE_STOCK, jsonMapper.writeValueAsString(orderRequest));
+        return toResponse(savedOrder);
+    }
+
+    @Override
+    public void confirmOrder(String orderId, List<ReservedProduct> reservedProducts) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        if (order.getStatus() != OrderStatus.CREATED) {
+            if (order.getStatus() == OrderStatus.REJECTED) {
+                // Reserved after the order was given up on, the stock goes back
+                enqueue(orderId, OutboxMessageType.RELEASE_STOCK, null);
+            }
+            return;
+        }
+
+        // Prices and product details are locked in from the reservation
+        Map<String, ReservedProduct> reservedByProduct = reservedProducts.stream()
+                .collect(Collectors.toMap(ReservedProduct::getProductId, Function.identity(), (first, second) -> first));
+        // A reply that misses a line cannot confirm the order: it is rejected and whatever was reserved goes back
+        boolean fullyReserved = order.getOrderLines().stream()
+                .allMatch(orderLine -> reservedByProduct.containsKey(orderLine.getProductId()));
+        if (!fullyReserved) {
+            rejectOrder(orderId, true);
+            return;
+        }
+        order.getOrderLines().forEach(orderLine -> {
+            ReservedProduct reservedProduct = reservedByProduct.get(orderLine.getProductId());
+            orderLine.setProductName(reservedProduct.getName());
+            orderLine.setProductImageUrl(reservedProduct.getImageUrl());
+            orderLine.setPrice(reservedProduct.getUnitPrice());
         });
+        order.setStatus(OrderStatus.CONFIRMED);
+    }
 
-        return getOrderById(savedOrder.getId());
+    @Override
+    public void rejectOrder(String orderId, boolean releaseStock) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        if (order.getStatus() != OrderStatus.CREATED) {
+            return;
+        }
+        order.setStatus(OrderStatus.REJECTED);
+        if (releaseStock) {
+            enqueue(orderId, OutboxMessageType.RELEASE_STOCK, null);
+        }
     }
 
     @Override
@@ -79,34 +124,79 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
-        OrderResponseDTO response = orderMapper.fromOrder(order);
+        return toResponses(List.of(order)).get(0);
+    }
 
-        if (order.getOrderLines() != null) {
-            List<OrderLineItemDTO> lineItems = order.getOrderLines().stream().map(line -> {
-                Product product = productRestClient.findProductById(line.getProductId());
-                return orderMapper.fromOrderLine(line, product);
-            }).collect(Collectors.toList());
-            response.setOrderLines(lineItems);
+    @Override
+    @Transactional(readOnly = true)
+    public OrderPageDTO getAllOrders(String cursor, int size) {
+        Pageable page = PageRequest.ofSize(size + 1);
+        List<String> ids;
+        if (cursor == null) {
+            ids = orderRepository.findFirstPageIds(page);
         } else {
-            response.setOrderLines(new ArrayList<>());
+            OrderCursor after = OrderCursor.decode(cursor);
+            ids = orderRepository.findPageIdsAfter(after.date(), after.id(), page);
         }
-
-        return response;
+        return toPage(ids, size);
     }
 
     @Override
-    public List<OrderResponseDTO> getAllOrders() {
-        List<Order> orders = orderRepository.findAll();
-        return orders.stream()
-                .map(order -> getOrderById(order.getId()))
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public OrderPageDTO getOrdersByUserId(String userId, String cursor, int size) {
+        Pageable page = PageRequest.ofSize(size + 1);
+        List<String> ids;
+        if (cursor == null) {
+            ids = orderRepository.findFirstPageIdsByUserId(userId, page);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            ids = orderRepository.findPageIdsByUserIdAfter(userId, after.date(), after.id(), page);
+        }
+        return toPage(ids, size);
     }
 
-    @Override
-    public List<OrderResponseDTO> getOrdersByUserId(String userId) {
-        List<Order> orders = orderRepository.findByUserId(userId);
+    private void enqueue(String orderId, OutboxMessageType type, String payload) {
+        Instant now = Instant.now();
+        outboxMessageRepository.save(OutboxMessage.builder()
+                .type(type)
+                .orderId(orderId)
+                .payload(payload)
+                .createdAt(now)
+                .availableAt(now)
+                .build());
+    }
+
+    // One extra id is read to know whether another page follows
+    private OrderPageDTO toPage(List<String> ids, int size) {
+        boolean hasNext = ids.size() > size;
+        List<String> pageIds = hasNext ? ids.subList(0, size) : ids;
+        if (pageIds.isEmpty()) {
+            return new OrderPageDTO(List.of(), null);
+        }
+
+        List<Order> orders = orderRepository.findWithLinesByIdIn(pageIds);
+        String nextCursor = hasNext ? OrderCursor.of(orders.get(orders.size() - 1)).encode() : null;
+        return new OrderPageDTO(toResponses(orders), nextCursor);
+    }
+
+    private List<OrderResponseDTO> toResponses(List<Order> orders) {
         return orders.stream()
-                .map(order -> getOrderById(order.getId()))
+                .map(this::toResponse)
                 .collect(Collectors.toList());
     }
+
+    private OrderResponseDTO toResponse(Order order) {
+        OrderResponseDTO response = orderMapper.fromOrder(order);
+
+        if (order.getOrderLines() != null) {
+            List<OrderLineItemDTO> lineItems = order.getOrderLines().stream()
+                    .map(orderMapper::fromOrderLine)
+                    .collect(Collectors.toList());
+            response.setOrderLines(lineItems);
+        } else {
+            response.setOrderLines(new ArrayList<>());
+        }
+
+        return response;
+    }
 }
\ No newline at end of file
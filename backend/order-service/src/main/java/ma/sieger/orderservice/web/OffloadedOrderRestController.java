@@ -0,0 +1,117 @@
+package ma.sieger.orderservice.web;
+
+import ma.sieger.orderservice.dtos.OrderPageDTO;
+import ma.sieger.orderservice.dtos.OrderRequestDTO;
+import ma.sieger.orderservice.dtos.OrderResponseDTO;
+import ma.sieger.orderservice.services.IdempotentOrderService;
+import ma.sieger.orderservice.services.OrderExportService;
+import ma.sieger.orderservice.services.OffloadedOrderService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+
+/**
+ * Same API as {@link OrderRestController}, served from {@link OffloadedOrderService} when
+ * order.execution-mode=offloaded. The /stream endpoints emit every order as NDJSON at the client's pace.
+ */
+@RestController
+@RequestMapping("/api/orders")
+@ConditionalOnProperty(name = "order.execution-mode", havingValue = "offloaded")
+public class OffloadedOrderRestController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final OffloadedOrderService orderService;
+    private final IdempotentOrderService idempotentOrderService;
+    private final OrderExportService orderExportService;
+
+    public OffloadedOrderRestController(OffloadedOrderService orderService,
+                                       IdempotentOrderService idempotentOrderService,
+                                       OrderExportService orderExportService) {
+        this.orderService = orderService;
+        this.idempotentOrderService = idempotentOrderService;
+        this.orderExportService = orderExportService;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('CLIENT')")
+    public Mono<ResponseEntity<OrderResponseDTO>> placeOrder(
+            @RequestBody OrderRequestDTO orderRequest,
+            @RequestHeader(value = OrderRestController.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @AuthenticationPrincipal Jwt jwt) {
+        if (idempotencyKey == null) {
+            return orderService.placeOrder(orderRequest, jwt.getSubject())
+                    .map(savedOrder -> new ResponseEntity<>(savedOrder, HttpStatus.CREATED));
+        }
+        // Keyed placements may wait on an in-flight duplicate, they take the blocking path off the request thread
+        String key = OrderRestController.validKey(idempotencyKey);
+        Callable<IdempotentOrderService.PlacedOrder> placement = new DelegatingSecurityContextCallable<>(
+                () -> idempotentOrderService.placeOrder(key, orderRequest, jwt.getSubject()));
+        return Mono.fromCallable(placement)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(OrderRestController::placed);
+    }
+
+    @GetMapping("/my-orders")
+    @PreAuthorize("hasRole('CLIENT')")
+    public Mono<OrderPageDTO> getMyOrders(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return orderService.getOrdersByUserId(jwt.getSubject(), cursor, pageSize(size));
+    }
+
+    @GetMapping(value = "/my-orders/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('CLIENT')")
+    public Flux<OrderResponseDTO> streamMyOrders(@AuthenticationPrincipal Jwt jwt) {
+        return orderService.streamOrdersByUserId(jwt.getSubject());
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('CLIENT', 'ADMIN')")
+    public Mono<OrderResponseDTO> getOrderById(@PathVariable String id) {
+        return orderService.getOrderById(id);
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<OrderPageDTO> allOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return orderService.getAllOrders(cursor, pageSize(size));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Flux<OrderResponseDTO> streamAllOrders() {
+        return orderService.streamAllOrders();
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> orderExportService.exportOrders(from, to, out));
+    }
+
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+}
@@ -1,42 +1,69 @@
 package ma.sieger.orderservice.web;
 
+import ma.sieger.orderservice.dtos.OrderPageDTO;
 import ma.sieger.orderservice.dtos.OrderRequestDTO;
 import ma.sieger.orderservice.dtos.OrderResponseDTO;
+import ma.sieger.orderservice.services.IdempotentOrderService;
+import ma.sieger.orderservice.services.OrderExportService;
 import ma.sieger.orderservice.services.OrderService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/orders")
+@ConditionalOnProperty(name = "order.execution-mode", havingValue = "blocking", matchIfMissing = true)
 public class OrderRestController {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 200;
+
     private final OrderService orderService;
+    private final IdempotentOrderService idempotentOrderService;
+    private final OrderExportService orderExportService;
 
-    public OrderRestController(OrderService orderService) {
+    public OrderRestController(OrderService orderService,
+                               IdempotentOrderService idempotentOrderService,
+                               OrderExportService orderExportService) {
         this.orderService = orderService;
+        this.idempotentOrderService = idempotentOrderService;
+        this.orderExportService = orderExportService;
     }
 
     @PostMapping
     @PreAuthorize("hasRole('CLIENT')")
     public ResponseEntity<OrderResponseDTO> placeOrder(
             @RequestBody OrderRequestDTO orderRequest,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             @AuthenticationPrincipal Jwt jwt) {
         String userId = jwt.getSubject();
-        OrderResponseDTO savedOrder = orderService.placeOrder(orderRequest, userId);
-        return new ResponseEntity<>(savedOrder, HttpStatus.CREATED);
+        if (idempotencyKey == null) {
+            OrderResponseDTO savedOrder = orderService.placeOrder(orderRequest, userId);
+            return new ResponseEntity<>(savedOrder, HttpStatus.CREATED);
+        }
+        return placed(idempotentOrderService.placeOrder(validKey(idempotencyKey), orderRequest, userId));
     }
 
     @GetMapping("/my-orders")
     @PreAuthorize("hasRole('CLIENT')")
-    public ResponseEntity<List<OrderResponseDTO>> getMyOrders(@AuthenticationPrincipal Jwt jwt) {
+    public ResponseEntity<OrderPageDTO> getMyOrders(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         String userId = jwt.getSubject();
-        return ResponseEntity.ok(orderService.getOrdersByUserId(userId));
+        return ResponseEntity.ok(orderService.getOrdersByUserId(userId, cursor, pageSize(size)));
     }
 
     @GetMapping("/{id}")
@@ -47,7 +74,37 @@ public class OrderRestController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<OrderResponseDTO>> allOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public ResponseEntity<OrderPageDTO> allOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(orderService.getAllOrders(cursor, pageSize(size)));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> orderExportService.exportOrders(from, to, out));
+    }
+
+    static ResponseEntity<OrderResponseDTO> placed(IdempotentOrderService.PlacedOrder placed) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED, Boolean.toString(placed.replayed()))
+                .body(placed.order());
+    }
+
+    static String validKey(String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY + " must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        return idempotencyKey;
+    }
+
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
     }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package ma.sieger.orderservice.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.sieger.orderservice.clients.ProductRequestHedger;
+import ma.sieger.orderservice.clients.ProductRestClient;
+import ma.sieger.orderservice.dtos.OrderRequestDTO;
+import ma.sieger.orderservice.model.Product;
+import ma.sieger.orderservice.model.ProductEvent;
+import ma.sieger.orderservice.model.ProductEvents;
+import ma.sieger.orderservice.model.ProductPage;
+import ma.sieger.orderservice.model.ReservedProduct;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductCacheInvalidatorTest {
+
+    private final CountingProductClient productClient = new CountingProductClient();
+    private final InMemoryEventSource eventSource = new InMemoryEventSource();
+    private ProductCache productCache;
+    private ProductCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        productCache = new ProductCache(productClient,
+                new ProductRequestHedger(Duration.ofSeconds(1), 0, meterRegistry),
+                new ProductLookupExecutor(4, Duration.ofSeconds(1)),
+                meterRegistry, 100, Duration.ofMinutes(10), 100);
+        invalidator = new ProductCacheInvalidator(productCache, eventSource, "feign");
+        invalidator.poll();
+    }
+
+    @Test
+    void cachedProductIsReloadedOnlyAfterItsChangeEvent() {
+        productCache.findProductsByIds(List.of("p1", "p2"));
+        productCache.findProductsByIds(List.of("p1", "p2"));
+        assertEquals(2, productClient.loads.get());
+
+        eventSource.publish("p1");
+        invalidator.poll();
+
+        productCache.findProductsByIds(List.of("p1", "p2"));
+        assertEquals(3, productClient.loads.get());
+    }
+
+    @Test
+    void resetAfterKnownPositionDropsWholeCache() {
+        productCache.findProductsByIds(List.of("p1", "p2"));
+
+        eventSource.restart();
+        invalidator.poll();
+
+        productCache.findProductsByIds(List.of("p1", "p2"));
+        assertEquals(4, productClient.loads.get());
+    }
+
+    private static class InMemoryEventSource implements ProductEventSource {
+        private String instanceId = "instance-1";
+        private final List<ProductEvent> log = new ArrayList<>();
+
+        void publish(String productId) {
+            ProductEvent event = new ProductEvent();
+            event.setSequence(log.size() + 1);
+            event.setProductId(productId);
+            event.setType("UPDATED");
+            log.add(event);
+        }
+
+        void restart() {
+            instanceId = "instance-2";
+            log.clear();
+        }
+
+        @Override
+        public List<String> instances() {
+            return List.of("http://product-service");
+        }
+
+        @Override
+        public ProductEvents eventsSince(String instance, String expectedInstanceId, long sequence) {
+            ProductEvents events = new ProductEvents();
+            events.setInstanceId(instanceId);
+            events.setLatestSequence(log.size());
+            if (expectedInstanceId != null && !expectedInstanceId.equals(instanceId) || sequence < 0) {
+                events.setReset(true);
+                events.setEvents(List.of());
+            } else {
+                events.setEvents(List.copyOf(log.subList((int) sequence, log.size())));
+            }
+            return events;
+        }
+    }
+
+    private static class CountingProductClient implements ProductRestClient {
+        private final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public Product findProductById(String id) {
+            loads.incrementAndGet();
+            return product(id);
+        }
+
+        @Override
+        public List<Product> findProductsByIds(Collection<String> ids) {
+            loads.addAndGet(ids.size());
+            return ids.stream().map(this::product).toList();
+        }
+
+        @Override
+        public ProductPage findProducts(int page, int size) {
+            return new ProductPage();
+        }
+
+        @Override
+        public Product decreaseStock(String id, int quantity) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<ReservedProduct> reserveStock(String reservationId, OrderRequestDTO orderRequest) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void releaseStock(String reservationId) {
+            throw new UnsupportedOperationException();
+        }
+
+        private Product product(String id) {
+            Product product = new Product();
+            product.setId(id);
+            product.setName("Product " + id);
+            return product;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package ma.sieger.orderservice.clients;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductRequestHedgerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProductRequestHedger hedger = new ProductRequestHedger(Duration.ofMillis(20), 0.1, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        hedger.shutdown();
+    }
+
+    @Test
+    void slowFirstAttemptIsOvertakenByTheHedge() {
+        FaultyStub stub = new FaultyStub(Duration.ofSeconds(2));
+
+        long start = System.nanoTime();
+        assertEquals("attempt-2", hedger.call(stub));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(1)) < 0);
+        assertEquals(1.0, meterRegistry.get("order.product-client.hedges").counter().count());
+    }
+
+    @Test
+    void failureIsReportedOnlyWhenBothAttemptsFail() {
+        Supplier<String> failing = () -> {
+            sleep(Duration.ofMillis(50));
+            throw new IllegalStateException("product-service unavailable");
+        };
+
+        assertThrows(IllegalStateException.class, () -> hedger.call(failing));
+    }
+
+    @Test
+    void hedgesStopOnceTheBudgetIsSpent() {
+        for (int i = 0; i < 15; i++) {
+            hedger.call(new FaultyStub(Duration.ofMillis(40)));
+        }
+
+        // 10 tokens to start with, plus 0.1 per request
+        assertEquals(11.0, meterRegistry.get("order.product-client.hedges").counter().count());
+    }
+
+    // Injects latency on the first attempt only
+    private static class FaultyStub implements Supplier<String> {
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final Duration firstAttemptLatency;
+
+        FaultyStub(Duration firstAttemptLatency) {
+            this.firstAttemptLatency = firstAttemptLatency;
+        }
+
+        @Override
+        public String get() {
+            int attempt = attempts.incrementAndGet();
+            if (attempt == 1) {
+                sleep(firstAttemptLatency);
+            }
+            return "attempt-" + attempt;
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
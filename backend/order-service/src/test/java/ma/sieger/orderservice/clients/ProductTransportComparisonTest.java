@@ -0,0 +1,207 @@
+package ma.sieger.orderservice.clients;
+
+import com.sun.net.httpserver.HttpServer;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import ma.sieger.commons.loadbalancer.InstanceStatsRegistry;
+import ma.sieger.orderservice.grpc.proto.GetProductRequest;
+import ma.sieger.orderservice.grpc.proto.GetProductsRequest;
+import ma.sieger.orderservice.grpc.proto.ProductCatalogGrpc;
+import ma.sieger.orderservice.grpc.proto.ProductList;
+import ma.sieger.orderservice.model.Product;
+import ma.sieger.orderservice.security.ProductServiceAuthorization;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Batch product lookups over loopback, concurrently: {@link ProductGrpcClient} against a gRPC server,
+ * and HTTP/1.1 JSON (what Feign sends) against an HTTP server returning the same products.
+ * Throughput and latencies are only logged, they depend on the machine; responses and payload sizes are asserted.
+ */
+@Slf4j
+class ProductTransportComparisonTest {
+
+    private static final int BATCH_SIZE = 50;
+    private static final int CLIENTS = 16;
+    private static final int CALLS_PER_CLIENT = 100;
+    private static final TypeReference<List<Product>> PRODUCT_LIST = new TypeReference<>() { };
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final List<ma.sieger.orderservice.grpc.proto.Product> messages = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+    private final List<String> ids = new ArrayList<>();
+    private Server grpcServer;
+    private HttpServer httpServer;
+    private ProductGrpcChannels channels;
+
+    @BeforeEach
+    void startServers() throws IOException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Product product = new Product();
+            product.setId("7c9e6679-7425-40de-944b-e07fc1f90a" + String.format("%02d", i));
+            product.setName("Produit " + i);
+            product.setPrice(19.99 + i);
+            product.setQuantity(100 + i);
+            product.setImageUrl(i % 2 == 0 ? "https://cdn.example.com/products/" + i + ".jpg" : null);
+            products.add(product);
+            ids.add(product.getId());
+            ma.sieger.orderservice.grpc.proto.Product.Builder message = ma.sieger.orderservice.grpc.proto.Product.newBuilder()
+                    .setId(product.getId()).setName(product.getName()).setPrice(product.getPrice())
+                    .setQuantity(product.getQuantity()).setVersion(i);
+            if (product.getImageUrl() != null) {
+                message.setImageUrl(product.getImageUrl());
+            }
+            messages.add(message.build());
+        }
+
+        grpcServer = Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .addService(new ProductCatalogGrpc.ProductCatalogImplBase() {
+                    @Override
+                    public void getProducts(GetProductsRequest request, StreamObserver<ProductList> responseObserver) {
+                        responseObserver.onNext(ProductList.newBuilder().addAllProducts(messages).build());
+                        responseObserver.onCompleted();
+                    }
+
+                    @Override
+                    public void getProduct(GetProductRequest request,
+                                           StreamObserver<ma.sieger.orderservice.grpc.proto.Product> responseObserver) {
+                        responseObserver.onError(Status.NOT_FOUND.asRuntimeException());
+                    }
+                })
+                .build().start();
+
+        byte[] json = jsonMapper.writeValueAsBytes(products);
+        // Otherwise Nagle and delayed ACKs add 40ms to every request, Tomcat sets TCP_NODELAY too
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpServer.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        httpServer.createContext("/api/products/batch", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, json.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(json);
+            }
+        });
+        httpServer.start();
+
+        ServiceInstance instance = new DefaultServiceInstance("product-1", ProductGrpcChannels.PRODUCT_SERVICE,
+                "localhost", 8081, false, Map.of("grpc-port", String.valueOf(grpcServer.getPort())));
+        channels = new ProductGrpcChannels(null, null, Duration.ofSeconds(30)) {
+            @Override
+            public ServiceInstance choose() {
+                return instance;
+            }
+        };
+    }
+
+    @AfterEach
+    void stopServers() {
+        channels.shutdown();
+        grpcServer.shutdownNow();
+        httpServer.stop(0);
+    }
+
+    @Test
+    void grpcAndJsonReturnTheSameProducts() throws Exception {
+        ProductGrpcClient grpcClient = new ProductGrpcClient(channels, new ProductServiceAuthorization(null) {
+            @Override
+            public String header() {
+                return null;
+            }
+        }, new StaticListableBeanFactory().getBeanProvider(InstanceStatsRegistry.class),
+                Duration.ofSeconds(1), Duration.ofSeconds(3));
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest batchRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + httpServer.getAddress().getPort()
+                        + "/api/products/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(jsonMapper.writeValueAsBytes(ids)))
+                .build();
+        Supplier<List<Product>> overJson = () -> {
+            try {
+                return jsonMapper.readValue(httpClient.send(batchRequest, HttpResponse.BodyHandlers.ofByteArray()).body(),
+                        PRODUCT_LIST);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        };
+
+        assertEquals(products, grpcClient.findProductsByIds(ids));
+        assertEquals(products, overJson.get());
+        StatusRuntimeException notFound = assertThrows(StatusRuntimeException.class,
+                () -> grpcClient.findProductById("unknown"));
+        assertEquals(Status.Code.NOT_FOUND, notFound.getStatus().getCode());
+
+        int protobufSize = ProductList.newBuilder().addAllProducts(messages).build().getSerializedSize();
+        int jsonSize = jsonMapper.writeValueAsBytes(products).length;
+        log.info("{} products: {} bytes as protobuf, {} as JSON", BATCH_SIZE, protobufSize, jsonSize);
+        assertTrue(protobufSize < jsonSize);
+
+        // Warm-up, then measured runs
+        run("gRPC", () -> grpcClient.findProductsByIds(ids));
+        run("HTTP/1.1 JSON", overJson);
+        run("gRPC", () -> grpcClient.findProductsByIds(ids));
+        run("HTTP/1.1 JSON", overJson);
+    }
+
+    private void run(String transport, Supplier<List<Product>> call) throws Exception {
+        long[] latencies = new long[CLIENTS * CALLS_PER_CLIENT];
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int client = 0; client < CLIENTS; client++) {
+                int offset = client * CALLS_PER_CLIENT;
+                runs.add(clients.submit(() -> {
+                    for (int i = 0; i < CALLS_PER_CLIENT; i++) {
+                        long callStart = System.nanoTime();
+                        assertEquals(BATCH_SIZE, call.get().size());
+                        latencies[offset + i] = System.nanoTime() - callStart;
+                    }
+                }));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        log.info("{}: {} batches of {} products, {} calls/s, p50 {} us, p99 {} us", transport, latencies.length,
+                BATCH_SIZE, latencies.length * 1_000_000_000L / elapsed,
+                latencies[latencies.length / 2] / 1000, latencies[latencies.length * 99 / 100] / 1000);
+    }
+}
@@ -0,0 +1,235 @@
+package ma.sieger.orderservice.services;
+
+import ma.sieger.orderservice.dtos.OrderPageDTO;
+import ma.sieger.orderservice.dtos.OrderRequestDTO;
+import ma.sieger.orderservice.dtos.OrderResponseDTO;
+import ma.sieger.orderservice.entities.IdempotencyRecord;
+import ma.sieger.orderservice.model.ReservedProduct;
+import ma.sieger.orderservice.repositories.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotentOrderServiceTest {
+
+    private static final String USER_ID = "user-1";
+    private static final String KEY = "key-1";
+    private static final String RECORD_ID = USER_ID + ":" + KEY;
+
+    private final Map<String, IdempotencyRecord> records = new ConcurrentHashMap<>();
+    private final TransactionalOrders orders = new TransactionalOrders();
+    // Two instances sharing the idempotency_keys table, each with its own local cache
+    private final IdempotentOrderService first = service();
+    private final IdempotentOrderService second = service();
+
+    @Test
+    void duplicatesReplayTheFirstOrderOnEveryInstance() {
+        IdempotentOrderService.PlacedOrder placed = first.placeOrder(KEY, request("p1", 2), USER_ID);
+        assertFalse(placed.replayed());
+
+        IdempotentOrderService.PlacedOrder sameInstance = first.placeOrder(KEY, request("p1", 2), USER_ID);
+        IdempotentOrderService.PlacedOrder otherInstance = second.placeOrder(KEY, request("p1", 2), USER_ID);
+        assertTrue(sameInstance.replayed());
+        assertTrue(otherInstance.replayed());
+        assertEquals(placed.order().getId(), sameInstance.order().getId());
+        assertEquals(placed.order().getId(), otherInstance.order().getId());
+        assertEquals(1, orders.committed.size());
+
+        ResponseStatusException reused = assertThrows(ResponseStatusException.class,
+                () -> second.placeOrder(KEY, request("p1", 3), USER_ID));
+        assertEquals(HttpStatus.UNPROCESSABLE_CONTENT, reused.getStatusCode());
+    }
+
+    @Test
+    void freshClaimIsReportedInProgressInsteadOfBeingTakenOver() throws NoSuchAlgorithmException {
+        claimedElsewhere(Instant.now().minusSeconds(30));
+
+        ResponseStatusException inProgress = assertThrows(ResponseStatusException.class,
+                () -> first.placeOrder(KEY, request("p1", 2), USER_ID));
+        assertEquals(HttpStatus.CONFLICT, inProgress.getStatusCode());
+        assertTrue(orders.committed.isEmpty());
+    }
+
+    @Test
+    void claimOlderThanTheLeaseIsTakenOver() throws NoSuchAlgorithmException {
+        claimedElsewhere(Instant.now().minus(Duration.ofMinutes(6)));
+
+        IdempotentOrderService.PlacedOrder placed = first.placeOrder(KEY, request("p1", 2), USER_ID);
+        assertFalse(placed.replayed());
+        assertEquals(List.of(placed.order().getId()), orders.committed);
+        assertEquals(placed.order().getId(), records.get(RECORD_ID).getOrderId());
+    }
+
+    @Test
+    void placementWhoseClaimWasTakenOverRollsBackAndLeavesTheNewClaim() {
+        Instant takenOverAt = Instant.now().plusSeconds(1);
+        orders.duringPlacement = () -> records.get(RECORD_ID).setCreatedAt(takenOverAt);
+
+        ResponseStatusException inProgress = assertThrows(ResponseStatusException.class,
+                () -> first.placeOrder(KEY, request("p1", 2), USER_ID));
+        assertEquals(HttpStatus.CONFLICT, inProgress.getStatusCode());
+        assertTrue(orders.committed.isEmpty());
+        assertEquals(takenOverAt, records.get(RECORD_ID).getCreatedAt());
+        assertNull(records.get(RECORD_ID).getOrderId());
+    }
+
+    @Test
+    void failedPlacementReleasesItsClaimSoTheClientCanRetry() {
+        orders.duringPlacement = () -> {
+            throw new IllegalArgumentException("Product not found");
+        };
+        assertThrows(IllegalArgumentException.class, () -> first.placeOrder(KEY, request("p1", 2), USER_ID));
+        assertFalse(records.containsKey(RECORD_ID));
+
+        orders.duringPlacement = null;
+        IdempotentOrderService.PlacedOrder placed = second.placeOrder(KEY, request("p1", 2), USER_ID);
+        assertFalse(placed.replayed());
+        assertEquals(1, orders.committed.size());
+    }
+
+    private IdempotentOrderService service() {
+        return new IdempotentOrderService(orders, idempotencyRecords(), orders, 100,
+                Duration.ofMillis(300), Duration.ofMinutes(5), Duration.ofDays(1));
+    }
+
+    private void claimedElsewhere(Instant claimedAt) throws NoSuchAlgorithmException {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId(RECORD_ID);
+        record.setRequestHash(requestHash(request("p1", 2)));
+        record.setCreatedAt(claimedAt);
+        records.put(RECORD_ID, record);
+    }
+
+    private static OrderRequestDTO request(String productId, int quantity) {
+        OrderRequestDTO orderRequest = new OrderRequestDTO();
+        orderRequest.setProducts(Map.of(productId, quantity));
+        return orderRequest;
+    }
+
+    // Same canonical form as IdempotentOrderService, so the claim looks like one for the same request
+    private static String requestHash(OrderRequestDTO orderRequest) throws NoSuchAlgorithmException {
+        byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(new TreeMap<>(orderRequest.getProducts()).toString().getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest);
+    }
+
+    private static boolean owns(IdempotencyRecord record, Object[] args) {
+        return record != null && record.getOrderId() == null
+                && record.getRequestHash().equals(args[1]) && record.getCreatedAt().equals(args[2]);
+    }
+
+    // The queries IdempotentOrderService runs, with the semantics of their SQL
+    private IdempotencyRecordRepository idempotencyRecords() {
+        return (IdempotencyRecordRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{IdempotencyRecordRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "claim" -> {
+                        synchronized (records) {
+                            IdempotencyRecord record = records.get(args[0]);
+                            if (record != null && (record.getOrderId() != null
+                                    || !record.getCreatedAt().isBefore((Instant) args[3]))) {
+                                yield 0;
+                            }
+                            records.put((String) args[0], new IdempotencyRecord((String) args[0], (String) args[1],
+                                    null, (Instant) args[2]));
+                            yield 1;
+                        }
+                    }
+                    case "findById" -> Optional.ofNullable(records.get(args[0]));
+                    case "complete" -> {
+                        IdempotencyRecord record = records.get(args[0]);
+                        if (!owns(record, args)) {
+                            yield 0;
+                        }
+                        record.setOrderId((String) args[3]);
+                        yield 1;
+                    }
+                    case "release" -> owns(records.get(args[0]), args) && records.remove(args[0]) != null ? 1 : 0;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // Orders only count once their transaction commits
+    private static class TransactionalOrders implements OrderService, PlatformTransactionManager {
+        private final List<String> pending = new ArrayList<>();
+        private final List<String> committed = new ArrayList<>();
+        private Runnable duringPlacement;
+
+        @Override
+        public OrderResponseDTO placeOrder(OrderRequestDTO orderRequest, String userId) {
+            String orderId = UUID.randomUUID().toString();
+            pending.add(orderId);
+            if (duringPlacement != null) {
+                duringPlacement.run();
+            }
+            return getOrderById(orderId);
+        }
+
+        @Override
+        public OrderResponseDTO getOrderById(String id) {
+            OrderResponseDTO order = new OrderResponseDTO();
+            order.setId(id);
+            return order;
+        }
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            committed.addAll(pending);
+            pending.clear();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            pending.clear();
+        }
+
+        @Override
+        public void confirmOrder(String orderId, List<ReservedProduct> reservedProducts) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void rejectOrder(String orderId, boolean releaseStock) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public OrderPageDTO getAllOrders(String cursor, int size) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public OrderPageDTO getOrdersByUserId(String userId, String cursor, int size) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package ma.sieger.orderservice.services;
+
+import feign.FeignException;
+import feign.Request;
+import ma.sieger.orderservice.clients.ProductRestClient;
+import ma.sieger.orderservice.dtos.OrderPageDTO;
+import ma.sieger.orderservice.dtos.OrderRequestDTO;
+import ma.sieger.orderservice.dtos.OrderResponseDTO;
+import ma.sieger.orderservice.enums.OrderStatus;
+import ma.sieger.orderservice.enums.OutboxMessageType;
+import ma.sieger.orderservice.messaging.OrderMessage;
+import ma.sieger.orderservice.messaging.OrderMessageBroker;
+import ma.sieger.orderservice.model.Product;
+import ma.sieger.orderservice.model.ProductPage;
+import ma.sieger.orderservice.model.ReservedProduct;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderSagaTest {
+
+    private static final Duration RESERVATION_TIMEOUT = Duration.ofMinutes(2);
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final InMemoryBroker broker = new InMemoryBroker();
+    private final InMemoryOrders orders = new InMemoryOrders(broker, jsonMapper);
+    private final StubProductService productService = new StubProductService(Map.of("p1", 5));
+    private final OrderSaga saga = new OrderSaga(orders, productService, jsonMapper, RESERVATION_TIMEOUT);
+
+    @Test
+    void reservedOrderIsConfirmedAndRedeliveryReservesOnce() {
+        String orderId = orders.place("p1", 2);
+
+        OrderMessage reserve = broker.next();
+        saga.handle(reserve);
+        saga.handle(reserve);
+
+        assertEquals(OrderStatus.CONFIRMED, orders.status(orderId));
+        assertEquals(3, productService.stock("p1"));
+        assertTrue(broker.isEmpty());
+    }
+
+    @Test
+    void refusedReservationRejectsTheOrderWithoutCompensation() {
+        String orderId = orders.place("p1", 6);
+
+        saga.handle(broker.next());
+
+        assertEquals(OrderStatus.REJECTED, orders.status(orderId));
+        assertEquals(5, productService.stock("p1"));
+        assertTrue(broker.isEmpty());
+    }
+
+    @Test
+    void unknownOutcomeIsRetriedThenCompensatedOnceTheTimeoutHasPassed() {
+        String orderId = orders.place("p1", 2);
+        OrderMessage reserve = broker.next();
+        // The reservation goes through, but the answer is lost on the way back
+        productService.failAfterReserving = true;
+
+        assertThrows(FeignException.ServiceUnavailable.class, () -> saga.handle(reserve));
+        assertEquals(OrderStatus.CREATED, orders.status(orderId));
+
+        saga.handle(new OrderMessage(reserve.id(), reserve.type(), reserve.orderId(), reserve.payload(),
+                Instant.now().minus(RESERVATION_TIMEOUT).minusSeconds(1)));
+        assertEquals(OrderStatus.REJECTED, orders.status(orderId));
+        assertEquals(3, productService.stock("p1"));
+
+        OrderMessage release = broker.next();
+        assertEquals(OutboxMessageType.RELEASE_STOCK, release.type());
+        saga.handle(release);
+        saga.handle(release);
+        assertEquals(5, productService.stock("p1"));
+    }
+
+    // Stands in for the outbox and its relay: messages wait here until the test delivers them
+    private static class InMemoryBroker implements OrderMessageBroker {
+        private final Deque<OrderMessage> messages = new ArrayDeque<>();
+        private final AtomicLong ids = new AtomicLong();
+
+        @Override
+        public void publish(OrderMessage message) {
+            messages.add(message);
+        }
+
+        void publish(OutboxMessageType type, String orderId, String payload) {
+            publish(new OrderMessage(ids.incrementAndGet(), type, orderId, payload, Instant.now()));
+        }
+
+        OrderMessage next() {
+            return messages.remove();
+        }
+
+        boolean isEmpty() {
+            return messages.isEmpty();
+        }
+    }
+
+    // Mirrors the state transitions of OrderServiceImpl, without the database
+    private static class InMemoryOrders implements OrderService {
+        private final Map<String, OrderStatus> statuses = new HashMap<>();
+        private final InMemoryBroker broker;
+        private final JsonMapper jsonMapper;
+
+        InMemoryOrders(InMemoryBroker broker, JsonMapper jsonMapper) {
+            this.broker = broker;
+            this.jsonMapper = jsonMapper;
+        }
+
+        String place(String productId, int quantity) {
+            OrderRequestDTO orderRequest = new OrderRequestDTO();
+            orderRequest.setProducts(Map.of(productId, quantity));
+            return placeOrder(orderRequest, "user-1").getId();
+        }
+
+        OrderStatus status(String orderId) {
+            return statuses.get(orderId);
+        }
+
+        @Override
+        public OrderResponseDTO placeOrder(OrderRequestDTO orderRequest, String userId) {
+            String orderId = UUID.randomUUID().toString();
+            statuses.put(orderId, OrderStatus.CREATED);
+            broker.publish(OutboxMessageType.RESERVE_STOCK, orderId, jsonMapper.writeValueAsString(orderRequest));
+            OrderResponseDTO response = new OrderResponseDTO();
+            response.setId(orderId);
+            return response;
+        }
+
+        @Override
+        public void confirmOrder(String orderId, List<ReservedProduct> reservedProducts) {
+            if (statuses.get(orderId) == OrderStatus.CREATED) {
+                statuses.put(orderId, OrderStatus.CONFIRMED);
+            } else if (statuses.get(orderId) == OrderStatus.REJECTED) {
+                broker.publish(OutboxMessageType.RELEASE_STOCK, orderId, null);
+            }
+        }
+
+        @Override
+        public void rejectOrder(String orderId, boolean releaseStock) {
+            if (statuses.get(orderId) != OrderStatus.CREATED) {
+                return;
+            }
+            statuses.put(orderId, OrderStatus.REJECTED);
+            if (releaseStock) {
+                broker.publish(OutboxMessageType.RELEASE_STOCK, orderId, null);
+            }
+        }
+
+        @Override
+        public OrderResponseDTO getOrderById(String id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public OrderPageDTO getAllOrders(String cursor, int size) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public OrderPageDTO getOrdersByUserId(String userId, String cursor, int size) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // Product-service reservation semantics (keyed, released at most once) with injectable faults
+    private static class StubProductService implements ProductRestClient {
+        private final Map<String, Integer> stock;
+        private final Map<String, Map<String, Integer>> reservations = new HashMap<>();
+        private final List<String> released = new ArrayList<>();
+        boolean failAfterReserving;
+
+        StubProductService(Map<String, Integer> stock) {
+            this.stock = new HashMap<>(stock);
+        }
+
+        int stock(String productId) {
+            return stock.get(productId);
+        }
+
+        @Override
+        public List<ReservedProduct> reserveStock(String reservationId, OrderRequestDTO orderRequest) {
+            if (released.contains(reservationId)) {
+                throw error(409);
+            }
+            if (!reservations.containsKey(reservationId)) {
+                orderRequest.getProducts().forEach((productId, quantity) -> {
+                    if (stock.get(productId) < quantity) {
+                        throw error(400);
+                    }
+                });
+                orderRequest.getProducts().forEach((productId, quantity) -> stock.merge(productId, -quantity, Integer::sum));
+                reservations.put(reservationId, orderRequest.getProducts());
+            }
+            if (failAfterReserving) {
+                throw error(503);
+            }
+            return reservations.get(reservationId).entrySet().stream()
+                    .map(line -> {
+                        ReservedProduct reservedProduct = new ReservedProduct();
+                        reservedProduct.setProductId(line.getKey());
+                        reservedProduct.setQuantity(line.getValue());
+                        reservedProduct.setUnitPrice(10);
+                        return reservedProduct;
+                    })
+                    .toList();
+        }
+
+        @Override
+        public void releaseStock(String reservationId) {
+            if (released.contains(reservationId)) {
+                return;
+            }
+            released.add(reservationId);
+            Map<String, Integer> reserved = reservations.remove(reservationId);
+            if (reserved != null) {
+                reserved.forEach((productId, quantity) -> stock.merge(productId, quantity, Integer::sum));
+            }
+        }
+
+        @Override
+        public Product findProductById(String id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Product> findProductsByIds(Collection<String> ids) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ProductPage findProducts(int page, int size) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Product decreaseStock(String id, int quantity) {
+            throw new UnsupportedOperationException();
+        }
+
+        private static FeignException error(int status) {
+            Request request = Request.create(Request.HttpMethod.PUT, "/api/products/reservations", Map.of(),
+                    null, StandardCharsets.UTF_8, null);
+            return switch (status) {
+                case 400 -> new FeignException.BadRequest("Insufficient stock", request, null, Map.of());
+                case 409 -> new FeignException.Conflict("Already released", request, null, Map.of());
+                default -> new FeignException.ServiceUnavailable("Unavailable", request, null, Map.of());
+            };
+        }
+    }
+}
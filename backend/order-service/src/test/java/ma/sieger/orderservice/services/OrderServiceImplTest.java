@@ -0,0 +1,94 @@
+package ma.sieger.orderservice.services;
+
+import ma.sieger.orderservice.entities.Order;
+import ma.sieger.orderservice.entities.OrderLine;
+import ma.sieger.orderservice.entities.OutboxMessage;
+import ma.sieger.orderservice.enums.OrderStatus;
+import ma.sieger.orderservice.enums.OutboxMessageType;
+import ma.sieger.orderservice.mappers.OrderMapper;
+import ma.sieger.orderservice.model.ReservedProduct;
+import ma.sieger.orderservice.repositories.OrderRepository;
+import ma.sieger.orderservice.repositories.OutboxMessageRepository;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderServiceImplTest {
+
+    private static final String ORDER_ID = "order-1";
+
+    private final Order order = order("p1", "p2");
+    private final List<OutboxMessage> outbox = new ArrayList<>();
+    private final OrderServiceImpl orderService = new OrderServiceImpl(orderRepository(), outboxMessageRepository(),
+            new OrderMapper(), JsonMapper.builder().build());
+
+    @Test
+    void reservationLocksInTheSnapshotOfEveryLine() {
+        // A repeated line in the reply is tolerated, the first one wins
+        orderService.confirmOrder(ORDER_ID, List.of(reserved("p1", 10), reserved("p2", 20), reserved("p1", 99)));
+
+        assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+        assertEquals(10, order.getOrderLines().get(0).getPrice());
+        assertEquals("Product p2", order.getOrderLines().get(1).getProductName());
+        assertTrue(outbox.isEmpty());
+    }
+
+    @Test
+    void replyMissingALineRejectsTheOrderAndReleasesTheStock() {
+        orderService.confirmOrder(ORDER_ID, List.of(reserved("p1", 10)));
+
+        assertEquals(OrderStatus.REJECTED, order.getStatus());
+        assertEquals(1, outbox.size());
+        assertEquals(OutboxMessageType.RELEASE_STOCK, outbox.get(0).getType());
+    }
+
+    private static Order order(String... productIds) {
+        Order order = Order.builder().id(ORDER_ID).userId("user-1").date(LocalDate.now())
+                .status(OrderStatus.CREATED).orderLines(new ArrayList<>()).build();
+        for (String productId : productIds) {
+            OrderLine orderLine = new OrderLine();
+            orderLine.setProductId(productId);
+            orderLine.setQuantity(1);
+            orderLine.setOrder(order);
+            order.getOrderLines().add(orderLine);
+        }
+        return order;
+    }
+
+    private static ReservedProduct reserved(String productId, double unitPrice) {
+        ReservedProduct reservedProduct = new ReservedProduct();
+        reservedProduct.setProductId(productId);
+        reservedProduct.setName("Product " + productId);
+        reservedProduct.setQuantity(1);
+        reservedProduct.setUnitPrice(unitPrice);
+        return reservedProduct;
+    }
+
+    // Only the calls confirmOrder and rejectOrder make, against the single order above
+    private OrderRepository orderRepository() {
+        return (OrderRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{OrderRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> ORDER_ID.equals(args[0]) ? Optional.of(order) : Optional.empty();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private OutboxMessageRepository outboxMessageRepository() {
+        return (OutboxMessageRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{OutboxMessageRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        outbox.add((OutboxMessage) args[0]);
+                        yield args[0];
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
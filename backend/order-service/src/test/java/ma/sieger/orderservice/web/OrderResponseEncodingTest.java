@@ -0,0 +1,105 @@
+package ma.sieger.orderservice.web;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.sieger.orderservice.dtos.OrderLineItemDTO;
+import ma.sieger.orderservice.dtos.OrderResponseDTO;
+import ma.sieger.orderservice.enums.OrderStatus;
+import ma.sieger.orderservice.model.Product;
+import org.junit.jupiter.api.Test;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bytes on the wire and encoding/decoding time of a 500 order response, in JSON and CBOR, with and without gzip.
+ * Timings are only logged: they depend on the machine, the sizes are asserted.
+ */
+@Slf4j
+class OrderResponseEncodingTest {
+
+    private static final TypeReference<List<OrderResponseDTO>> ORDER_LIST = new TypeReference<>() { };
+    private static final int ROUNDS = 50;
+
+    private final List<OrderResponseDTO> orders = orders(500);
+
+    @Test
+    void cborAndGzipShrinkTheOrderList() throws IOException {
+        byte[] json = encode(JsonMapper.builder().build());
+        byte[] cbor = encode(CBORMapper.builder().build());
+
+        assertTrue(cbor.length < json.length, "CBOR " + cbor.length + " bytes, JSON " + json.length);
+        assertTrue(gzip(json).length * 4 < json.length, "gzip JSON " + gzip(json).length + " bytes, JSON " + json.length);
+        assertTrue(gzip(cbor).length < cbor.length);
+    }
+
+    private byte[] encode(ObjectMapper mapper) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(orders);
+        assertEquals(orders, mapper.readValue(bytes, ORDER_LIST));
+
+        long encodeStart = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            mapper.writeValueAsBytes(orders);
+        }
+        long encodeNanos = (System.nanoTime() - encodeStart) / ROUNDS;
+        long decodeStart = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            mapper.readValue(bytes, ORDER_LIST);
+        }
+        long decodeNanos = (System.nanoTime() - decodeStart) / ROUNDS;
+
+        log.info("{} orders as {}: {} bytes, {} gzipped, encoded in {} us, decoded in {} us", orders.size(),
+                mapper.tokenStreamFactory().getFormatName(), bytes.length, gzip(bytes).length,
+                encodeNanos / 1000, decodeNanos / 1000);
+        return bytes;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static List<OrderResponseDTO> orders(int count) {
+        List<OrderResponseDTO> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<OrderLineItemDTO> lines = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                Product product = new Product();
+                product.setId("7c9e6679-7425-40de-944b-e07fc1f90a" + String.format("%02d", (i + j) % 100));
+                product.setName("Produit " + (i + j) % 100);
+                product.setPrice(19.99 + j);
+                product.setQuantity(100 - j);
+                product.setImageUrl("https://cdn.example.com/products/" + (i + j) % 100 + ".jpg");
+
+                OrderLineItemDTO line = new OrderLineItemDTO();
+                line.setId((long) i * 3 + j);
+                line.setProduct(product);
+                line.setQuantity(j + 1);
+                line.setPrice(product.getPrice());
+                line.setTotalLinePrice(product.getPrice() * (j + 1));
+                lines.add(line);
+            }
+            OrderResponseDTO order = new OrderResponseDTO();
+            order.setId("order-" + i);
+            order.setDate(LocalDate.of(2025, 1, 1).plusDays(i % 365));
+            order.setStatus(OrderStatus.CONFIRMED);
+            order.setTotalAmount(lines.stream().mapToDouble(OrderLineItemDTO::getTotalLinePrice).sum());
+            order.setOrderLines(lines);
+            orders.add(order);
+        }
+        return orders;
+    }
+}
@@ -7,8 +7,10 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ProductServiceApplication {
 
     public static void main(String[] args) {
@@ -18,6 +20,7 @@ public class ProductServiceApplication {
     @Bean
     CommandLineRunner commandLineRunner(ProductService productService, ProductRepository productRepository) {
         return args -> {
+            productRepository.createNameKeyPatternIndex();
             // Only seed data if the database is empty
             if (productRepository.count() == 0) {
                 productService.createProduct(new ProductRequestDTO(
@@ -47,6 +50,7 @@ public class ProductServiceApplication {
                 System.out.println("Test data initialized in Product Database!");
             } else {
                 System.out.println("Product Database already contains data, skipping initialization.");
+                productRepository.fillMissingNameKeys();
             }
         };
     }
@@ -0,0 +1,136 @@
+package ma.sieger.productservice.changes;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ma.sieger.productservice.dtos.ProductChangeDTO;
+import ma.sieger.productservice.dtos.ProductChangesDTO;
+import ma.sieger.productservice.dtos.ProductResponseDTO;
+import ma.sieger.productservice.dtos.ProductSnapshotDTO;
+import ma.sieger.productservice.entities.Product;
+import ma.sieger.productservice.entities.ProductChange;
+import ma.sieger.productservice.mappers.ProductMapper;
+import ma.sieger.productservice.repository.ProductChangeRepository;
+import ma.sieger.productservice.repository.ProductRepository;
+import ma.sieger.productservice.stock.HotStockManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Durable, versioned feed of product changes for downstream caches and read models, shared by all
+ * instances (unlike {@link ma.sieger.productservice.events.ProductEventLog}, in memory and per instance).
+ * <p>
+ * A new consumer reads a snapshot page by page, then tails the feed from the snapshot's version. Changes
+ * only say which product changed and how: consumers re-read the products they care about. The log is
+ * compacted: once older than the compaction lag, a change is dropped if a later one exists for the same
+ * product. The latest change of every product, deletions included, is kept, so a consumer can resume from
+ * any version it has seen and still converge, however far behind.
+ */
+@Service
+@Slf4j
+public class ProductChangeFeed {
+
+    private final ProductChangeRepository changeRepository;
+    private final ProductRepository productRepository;
+    private final ProductChangeSequencer sequencer;
+    private final ProductMapper productMapper;
+    private final HotStockManager hotStockManager;
+    private final Duration compactionLag;
+    private final Duration maxWait;
+    // Long polls wait here instead of holding a request thread
+    private final ExecutorService waiters = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ProductChangeFeed(ProductChangeRepository changeRepository,
+                             ProductRepository productRepository,
+                             ProductChangeSequencer sequencer,
+                             ProductMapper productMapper,
+                             HotStockManager hotStockManager,
+                             @Value("${product.changes.compaction-lag:PT1H}") Duration compactionLag,
+                             @Value("${product.changes.max-wait:PT25S}") Duration maxWait) {
+        this.changeRepository = changeRepository;
+        this.productRepository = productRepository;
+        this.sequencer = sequencer;
+        this.productMapper = productMapper;
+        this.hotStockManager = hotStockManager;
+        this.compactionLag = compactionLag;
+        this.maxWait = maxWait;
+    }
+
+    // Changes after since; when there are none yet, waits up to wait for some
+    public ProductChangesDTO changesSince(long since, int limit, Duration wait) throws InterruptedException {
+        long head = sequencer.head();
+        // Another instance may have handed out a version this one has not read yet
+        if (since > head) {
+            head = sequencer.refreshHead();
+        }
+        if (since > head) {
+            throw new IllegalArgumentException("Unknown change feed version " + since + ", latest is " + head);
+        }
+        if (since == head && !wait.isZero()) {
+            sequencer.awaitVersionAfter(since, wait);
+        }
+        List<ProductChangeDTO> changes = changeRepository.findByVersionGreaterThanOrderByVersion(Math.max(since, 0),
+                        Limit.of(limit)).stream()
+                .map(ProductChangeFeed::toDTO)
+                .toList();
+        return new ProductChangesDTO(changes.isEmpty() ? since : changes.getLast().version(), changes);
+    }
+
+    // The wait is capped below the async request timeout
+    public CompletableFuture<ProductChangesDTO> pollChanges(long since, int limit, Duration wait) {
+        Duration cappedWait = wait.compareTo(maxWait) > 0 ? maxWait : wait;
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return changesSince(since, limit, cappedWait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, waiters);
+    }
+
+    public ProductSnapshotDTO snapshot(String after, int size) {
+        // Read first: whatever changes while the pages are read is replayed from the feed
+        long version = sequencer.head();
+        List<ProductResponseDTO> products = productRepository
+                .findByIdGreaterThanOrderById(after == null ? "" : after, Limit.of(size)).stream()
+                .map(this::toResponse)
+                .toList();
+        String nextAfter = products.size() < size ? null : products.getLast().id();
+        return new ProductSnapshotDTO(version, products, nextAfter);
+    }
+
+    @Scheduled(initialDelayString = "${product.changes.compaction-interval-ms:600000}",
+            fixedDelayString = "${product.changes.compaction-interval-ms:600000}")
+    public void compact() {
+        int removed = changeRepository.deleteSupersededBefore(Instant.now().minus(compactionLag));
+        if (removed > 0) {
+            log.info("Product change log compacted, {} superseded changes removed", removed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        waiters.shutdownNow();
+    }
+
+    private ProductResponseDTO toResponse(Product product) {
+        if (hotStockManager.isHot(product.getId())) {
+            return productMapper.fromEntity(product, hotStockManager.availableQuantity(product.getId()));
+        }
+        return productMapper.fromEntity(product);
+    }
+
+    private static ProductChangeDTO toDTO(ProductChange change) {
+        return new ProductChangeDTO(change.getVersion(), change.getProductId(), change.getType(), change.getOccurredAt());
+    }
+}
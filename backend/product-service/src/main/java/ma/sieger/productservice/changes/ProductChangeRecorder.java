@@ -0,0 +1,57 @@
+package ma.sieger.productservice.changes;
+
+import ma.sieger.productservice.entities.Product;
+import ma.sieger.productservice.events.ProductChangeType;
+import ma.sieger.productservice.events.ProductChangedEvent;
+import ma.sieger.productservice.events.ProductsImportedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Stream;
+
+/**
+ * Appends every product write to the durable change log, in the write's own transaction: the change
+ * commits or rolls back with it. Rows are inserted unsequenced, {@link ProductChangeSequencer} numbers them.
+ */
+@Component
+public class ProductChangeRecorder {
+
+    private static final String INSERT_SQL =
+            "insert into product_changes (product_id, type, occurred_at) values (:productId, :type, current_timestamp)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ProductChangeRecorder(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        jdbcTemplate.update(INSERT_SQL, parameters(event.productId(), event.type()));
+    }
+
+    // Import batches are written with JDBC, so are their changes
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        SqlParameterSource[] parameters = Stream.concat(
+                        event.created().stream().map(product -> parameters(product, ProductChangeType.CREATED)),
+                        event.updated().stream().map(product -> parameters(product, ProductChangeType.UPDATED)))
+                .toArray(SqlParameterSource[]::new);
+        if (parameters.length > 0) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, parameters);
+        }
+    }
+
+    private static SqlParameterSource parameters(Product product, ProductChangeType type) {
+        return parameters(product.getId(), type);
+    }
+
+    private static SqlParameterSource parameters(String productId, ProductChangeType type) {
+        return new MapSqlParameterSource()
+                .addValue("productId", productId)
+                .addValue("type", type.name());
+    }
+}
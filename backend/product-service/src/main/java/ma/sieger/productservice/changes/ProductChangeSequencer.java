@@ -0,0 +1,133 @@
+package ma.sieger.productservice.changes;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.sieger.productservice.entities.ProductChange;
+import ma.sieger.productservice.entities.ProductChangeLogHead;
+import ma.sieger.productservice.repository.ProductChangeLogHeadRepository;
+import ma.sieger.productservice.repository.ProductChangeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Numbers committed changes, in batches, while holding the lock on the log head row: versions are handed
+ * out in the order they become visible, across all instances. A consumer that has read up to version N
+ * can never see a change numbered N or lower appear later, which an id generated at insert time (in the
+ * writer's still open transaction) would not guarantee.
+ * <p>
+ * Every run also reads the head, so consumers waiting on this instance learn about changes sequenced by
+ * any instance within one interval.
+ */
+@Component
+@Slf4j
+public class ProductChangeSequencer {
+
+    private final ProductChangeRepository changeRepository;
+    private final ProductChangeLogHeadRepository headRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition advanced = lock.newCondition();
+    // Unknown (-1) until the head has been read once
+    private long head = -1;
+
+    public ProductChangeSequencer(ProductChangeRepository changeRepository,
+                                  ProductChangeLogHeadRepository headRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${product.changes.sequence-batch-size:1000}") int batchSize) {
+        this.changeRepository = changeRepository;
+        this.headRepository = headRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${product.changes.sequence-interval-ms:100}")
+    public void sequence() {
+        try {
+            Batch batch;
+            do {
+                batch = changeRepository.existsByVersionIsNull()
+                        ? transactionTemplate.execute(status -> assignVersions())
+                        : new Batch(readHead(), 0);
+                advanceTo(batch.head());
+            } while (batch.size() == batchSize);
+        } catch (DataAccessException e) {
+            // Two instances creating the head row at once, or the database is away: next run
+            log.debug("Could not sequence product changes: {}", e.getMessage());
+        }
+    }
+
+    // Last version visible to consumers, as of the last run at most one interval ago
+    public long head() {
+        lock.lock();
+        try {
+            if (head >= 0) {
+                return head;
+            }
+        } finally {
+            lock.unlock();
+        }
+        long current = readHead();
+        advanceTo(current);
+        return current;
+    }
+
+    // Head read from the database, for a version this instance has not caught up with yet
+    public long refreshHead() {
+        advanceTo(readHead());
+        return head();
+    }
+
+    // Returns once a version after the given one is visible, or after the timeout
+    public void awaitVersionAfter(long version, Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = timeout.toNanos();
+            while (head <= version && remaining > 0) {
+                remaining = advanced.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Batch assignVersions() {
+        ProductChangeLogHead logHead = headRepository.findByIdForUpdate(ProductChangeLogHead.ID)
+                .orElseGet(() -> headRepository.saveAndFlush(new ProductChangeLogHead(ProductChangeLogHead.ID, 0)));
+        // Read after taking the lock: sees everything committed before, nothing a concurrent run has numbered
+        List<ProductChange> pending = changeRepository.findByVersionIsNullOrderById(Limit.of(batchSize));
+        long version = logHead.getLastVersion();
+        for (ProductChange change : pending) {
+            change.setVersion(++version);
+        }
+        logHead.setLastVersion(version);
+        return new Batch(version, pending.size());
+    }
+
+    private long readHead() {
+        return headRepository.findById(ProductChangeLogHead.ID).map(ProductChangeLogHead::getLastVersion).orElse(0L);
+    }
+
+    private void advanceTo(long version) {
+        lock.lock();
+        try {
+            if (version > head) {
+                head = version;
+                advanced.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Batch(long head, int size) {}
+}
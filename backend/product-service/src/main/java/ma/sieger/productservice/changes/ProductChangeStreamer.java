@@ -0,0 +1,77 @@
+package ma.sieger.productservice.changes;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ma.sieger.productservice.dtos.ProductChangeDTO;
+import ma.sieger.productservice.dtos.ProductChangesDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-sent events flavour of the change feed: one {@code change} event per change, its version as the
+ * event id, so that a reconnecting client resumes with {@code Last-Event-ID}. A comment is sent when
+ * nothing happened for a heartbeat, and the stream ends after the stream timeout; clients reconnect.
+ */
+@Component
+@Slf4j
+public class ProductChangeStreamer {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ProductChangeFeed feed;
+    private final Duration heartbeat;
+    private final Duration streamTimeout;
+    private final ExecutorService streams = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ProductChangeStreamer(ProductChangeFeed feed,
+                                 @Value("${product.changes.heartbeat:PT15S}") Duration heartbeat,
+                                 @Value("${product.changes.stream-timeout:PT30M}") Duration streamTimeout) {
+        this.feed = feed;
+        this.heartbeat = heartbeat;
+        this.streamTimeout = streamTimeout;
+    }
+
+    public SseEmitter stream(long since) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(error -> open.set(false));
+        streams.execute(() -> {
+            long version = since;
+            try {
+                while (open.get()) {
+                    ProductChangesDTO batch = feed.changesSince(version, BATCH_SIZE, heartbeat);
+                    if (batch.changes().isEmpty()) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    for (ProductChangeDTO change : batch.changes()) {
+                        emitter.send(SseEmitter.event().id(Long.toString(change.version())).name("change").data(change));
+                    }
+                    version = batch.version();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client gone, or the emitter timed out meanwhile
+                log.debug("Product change stream closed at version {}: {}", version, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            } catch (RuntimeException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streams.shutdownNow();
+    }
+}
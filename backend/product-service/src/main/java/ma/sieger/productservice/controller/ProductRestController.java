@@ -2,31 +2,141 @@ package ma.sieger.productservice.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import ma.sieger.productservice.changes.ProductChangeFeed;
+import ma.sieger.productservice.changes.ProductChangeStreamer;
+import ma.sieger.productservice.dtos.ProductChangesDTO;
+import ma.sieger.productservice.dtos.ProductEventsDTO;
+import ma.sieger.productservice.dtos.ProductImportReportDTO;
+import ma.sieger.productservice.dtos.ProductPageDTO;
 import ma.sieger.productservice.dtos.ProductRequestDTO;
 import ma.sieger.productservice.dtos.ProductResponseDTO;
+import ma.sieger.productservice.dtos.ProductSearchHitDTO;
+import ma.sieger.productservice.dtos.ProductSnapshotDTO;
+import ma.sieger.productservice.dtos.ReservedProductDTO;
+import ma.sieger.productservice.dtos.StockReservationRequestDTO;
+import ma.sieger.productservice.events.ProductEventLog;
+import ma.sieger.productservice.importer.ProductImportService;
+import ma.sieger.productservice.search.ProductSearchService;
 import ma.sieger.productservice.service.ProductService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
 public class ProductRestController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ProductService productService;
+    private final ProductEventLog productEventLog;
+    private final ProductSearchService productSearchService;
+    private final ProductImportService productImportService;
+    private final ProductChangeFeed productChangeFeed;
+    private final ProductChangeStreamer productChangeStreamer;
 
     @GetMapping
-    public ResponseEntity<List<ProductResponseDTO>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<ProductPageDTO> getAllProducts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(required = false) String q) {
+        Sort sort = Sort.by(Sort.Direction.fromString(direction), sortProperty(sortBy)).and(Sort.by("id"));
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)), sort);
+        ProductPageDTO productPage = productService.getProducts(minPrice, maxPrice, inStock, q, pageRequest);
+        // A matching If-None-Match gets a 304 before the page is serialized
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag(productPage)).body(productPage);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSearchHitDTO>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(productSearchService.search(q, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    @GetMapping("/search/suggest")
+    public ResponseEntity<List<String>> suggestTerms(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productSearchService.complete(prefix, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    @GetMapping("/events")
+    public ResponseEntity<ProductEventsDTO> getProductEvents(
+            @RequestParam(required = false) String instanceId,
+            @RequestParam(defaultValue = "-1") long since,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(productEventLog.eventsSince(instanceId, since, Math.min(limit, 1000)));
+    }
+
+    // Long poll: answers as soon as there are changes after since, or with none after waitSeconds
+    @GetMapping("/changes")
+    public CompletableFuture<ResponseEntity<ProductChangesDTO>> getProductChanges(
+            @RequestParam long since,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(defaultValue = "0") int waitSeconds) {
+        return productChangeFeed.pollChanges(since, Math.max(1, Math.min(limit, 1000)),
+                        Duration.ofSeconds(Math.max(0, waitSeconds)))
+                .thenApply(changes -> ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(changes));
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductChanges(
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        if (since == null && lastEventId == null) {
+            throw new IllegalArgumentException("since or Last-Event-ID is required");
+        }
+        return productChangeStreamer.stream(lastEventId != null ? lastEventId : since);
+    }
+
+    // New consumers read every page, then tail the changes from the version of the first page
+    @GetMapping("/changes/snapshot")
+    public ResponseEntity<ProductSnapshotDTO> getProductSnapshot(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "500") int size) {
+        return ResponseEntity.ok(productChangeFeed.snapshot(after, Math.max(1, Math.min(size, 1000))));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponseDTO> getProductById(@PathVariable String id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+        ProductResponseDTO product = productService.getProductById(id);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(product.version() + "-" + product.quantity());
+        // Absent for hot products, an If-Modified-Since alone would otherwise get a 304 with stale stock
+        if (product.lastModified() != null) {
+            response.lastModified(product.lastModified());
+        }
+        return response.body(product);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<ProductResponseDTO>> getProductsByIds(@RequestBody List<String> ids) {
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
     }
 
     @PostMapping
@@ -35,6 +145,15 @@ public class ProductRestController {
         return new ResponseEntity<>(productService.createProduct(productRequestDTO), HttpStatus.CREATED);
     }
 
+    // Catalog feed upsert, streamed: CSV with a header row, or one JSON product per line
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportReportDTO> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importProducts(MediaType.parseMediaType(contentType), body));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ProductResponseDTO> updateProduct(@PathVariable String id, @RequestBody @Valid ProductRequestDTO productRequestDTO) {
@@ -55,4 +174,44 @@ public class ProductRestController {
             @RequestParam int quantity) {
         return ResponseEntity.ok(productService.decreaseStock(id, quantity));
     }
+
+    @PutMapping("/reservations/{reservationId}")
+    @PreAuthorize("hasRole('SERVICE')")
+    public ResponseEntity<List<ReservedProductDTO>> reserveStock(
+            @PathVariable String reservationId,
+            @RequestBody @Valid StockReservationRequestDTO reservationRequest) {
+        return ResponseEntity.ok(productService.reserveStock(reservationId, reservationRequest.products()));
+    }
+
+    @DeleteMapping("/reservations/{reservationId}")
+    @PreAuthorize("hasRole('SERVICE')")
+    public ResponseEntity<Void> releaseStock(@PathVariable String reservationId) {
+        productService.releaseStock(reservationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // The page's products and their versions; the quantity covers hot products, whose stock is held in memory
+    private static String eTag(ProductPageDTO productPage) {
+        MessageDigest digest = sha256();
+        digest.update((productPage.page() + ":" + productPage.size() + ":" + productPage.totalElements()).getBytes(StandardCharsets.UTF_8));
+        productPage.content().forEach(product -> digest.update(
+                (product.id() + ":" + product.version() + ":" + product.quantity() + ";").getBytes(StandardCharsets.UTF_8)));
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String sortProperty(String sortBy) {
+        return switch (sortBy) {
+            case "name" -> "nameKey";
+            case "price" -> "price";
+            default -> throw new IllegalArgumentException("Unsupported sort: " + sortBy);
+        };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package ma.sieger.productservice.dtos;
+
+import java.util.List;
+
+public record ProductChangesDTO(
+    // Where the next request resumes (since=version), the last change returned or the requested position
+    long version,
+    List<ProductChangeDTO> changes
+) {}
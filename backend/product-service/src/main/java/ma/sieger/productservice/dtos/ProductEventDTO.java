@@ -0,0 +1,12 @@
+package ma.sieger.productservice.dtos;
+
+import ma.sieger.productservice.events.ProductChangeType;
+
+import java.time.Instant;
+
+public record ProductEventDTO(
+    long sequence,
+    String productId,
+    ProductChangeType type,
+    Instant occurredAt
+) {}
@@ -0,0 +1,10 @@
+package ma.sieger.productservice.dtos;
+
+import java.util.List;
+
+public record ProductEventsDTO(
+    String instanceId,
+    long latestSequence,
+    boolean reset,
+    List<ProductEventDTO> events
+) {}
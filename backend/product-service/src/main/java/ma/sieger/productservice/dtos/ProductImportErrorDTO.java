@@ -0,0 +1,6 @@
+package ma.sieger.productservice.dtos;
+
+public record ProductImportErrorDTO(
+    long line,
+    String message
+) {}
@@ -0,0 +1,15 @@
+package ma.sieger.productservice.dtos;
+
+import java.util.List;
+
+public record ProductImportReportDTO(
+    long rows,
+    long created,
+    long updated,
+    long rejected,
+    long durationMs,
+    long rowsPerSecond,
+    // Only the first errors are listed, rejected still counts all of them
+    boolean errorsTruncated,
+    List<ProductImportErrorDTO> errors
+) {}
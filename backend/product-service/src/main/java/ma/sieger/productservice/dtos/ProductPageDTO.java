@@ -0,0 +1,11 @@
+package ma.sieger.productservice.dtos;
+
+import java.util.List;
+
+public record ProductPageDTO(
+    List<ProductSummaryDTO> content,
+    int page,
+    int size,
+    long totalElements,
+    int totalPages
+) {}
@@ -1,10 +1,17 @@
 package ma.sieger.productservice.dtos;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+
 public record ProductResponseDTO(
     String id,
     String name,
     String description,
     double price,
     int quantity,
-    String imageUrl
+    String imageUrl,
+    // Sent as ETag and Last-Modified headers, not in the body
+    @JsonIgnore long version,
+    @JsonIgnore Instant lastModified
 ) {}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package ma.sieger.productservice.dtos;
+
+public record ProductSearchHitDTO(
+    String id,
+    String name,
+    double price,
+    String imageUrl,
+    double score
+) {}
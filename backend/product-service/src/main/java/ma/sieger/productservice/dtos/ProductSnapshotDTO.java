@@ -0,0 +1,11 @@
+package ma.sieger.productservice.dtos;
+
+import java.util.List;
+
+public record ProductSnapshotDTO(
+    // Change feed position to tail from once every page is read; taken before the products, so it may replay some
+    long version,
+    List<ProductResponseDTO> products,
+    // Id to pass as after for the next page, null on the last one
+    String nextAfter
+) {}
@@ -0,0 +1,14 @@
+package ma.sieger.productservice.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// Catalog listing view: everything a product card needs, without the description
+public record ProductSummaryDTO(
+    String id,
+    String name,
+    double price,
+    int quantity,
+    String imageUrl,
+    // Only feeds the page ETag
+    @JsonIgnore long version
+) {}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package ma.sieger.productservice.dtos;
+
+public record ReservedProductDTO(
+    String productId,
+    String name,
+    String imageUrl,
+    int quantity,
+    double unitPrice
+) {}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package ma.sieger.productservice.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.Map;
+
+public record StockReservationRequestDTO(
+        // Key = ProductID, Value = Quantity
+        @NotEmpty(message = "At least one product is required")
+        Map<String, Integer> products
+) {}
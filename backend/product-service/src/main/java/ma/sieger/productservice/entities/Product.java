@@ -2,8 +2,16 @@ package ma.sieger.productservice.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_product_name_key", columnList = "nameKey"),
+        @Index(name = "idx_product_price", columnList = "price"),
+        @Index(name = "idx_product_quantity", columnList = "quantity")
+})
 @Getter @Setter
 @ToString
 @NoArgsConstructor @AllArgsConstructor
@@ -16,6 +24,9 @@ public class Product {
     @Column(nullable = false)
     private String name;
 
+    // Lower-cased name, indexed for case-insensitive prefix search and sorting
+    private String nameKey;
+
     private String description;
 
     @Column(nullable = false)
@@ -25,4 +36,19 @@ public class Product {
     private int quantity;
 
     private String imageUrl;
-}
\ No newline at end of file
+
+    // Bumped by every write, bulk stock updates included, it is the product's ETag
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    private Instant lastModified;
+
+    @PrePersist
+    @PreUpdate
+    void beforeWrite() {
+        nameKey = name == null ? null : name.toLowerCase();
+        lastModified = Instant.now();
+    }
+}
@@ -0,0 +1,35 @@
+package ma.sieger.productservice.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ma.sieger.productservice.events.ProductChangeType;
+
+import java.time.Instant;
+
+// Written in the transaction of the product write it records; the version is assigned once it has committed
+@Entity
+@Table(name = "product_changes", indexes = {
+        @Index(name = "idx_product_changes_version", columnList = "version", unique = true),
+        @Index(name = "idx_product_changes_product", columnList = "productId, version")
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class ProductChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Null until sequenced, then the position in the change feed
+    private Long version;
+
+    @Column(nullable = false)
+    private String productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ProductChangeType type;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+}
@@ -0,0 +1,19 @@
+package ma.sieger.productservice.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Single row: last version handed out, locked by whichever instance is sequencing changes
+@Entity
+@Table(name = "product_change_log_head")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+public class ProductChangeLogHead {
+    public static final int ID = 1;
+
+    @Id
+    private int id;
+
+    @Column(nullable = false)
+    private long lastVersion;
+}
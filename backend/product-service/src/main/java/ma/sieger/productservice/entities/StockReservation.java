@@ -0,0 +1,36 @@
+package ma.sieger.productservice.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Stock taken for one order, keyed by the order id so that redelivered reserve/release requests are no-ops
+@Entity
+@Table(name = "stock_reservations")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class StockReservation {
+    @Id
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    private Instant createdAt;
+
+    @ElementCollection
+    @CollectionTable(name = "stock_reservation_lines", joinColumns = @JoinColumn(name = "reservation_id"))
+    @Builder.Default
+    private List<StockReservationLine> lines = new ArrayList<>();
+
+    public enum Status {
+        RESERVED,
+        // Also recorded when the release arrives first, so that a late reservation is refused
+        RELEASED
+    }
+}
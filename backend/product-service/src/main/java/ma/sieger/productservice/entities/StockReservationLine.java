@@ -0,0 +1,19 @@
+package ma.sieger.productservice.entities;
+
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+@Embeddable
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+public class StockReservationLine {
+    private String productId;
+
+    private String productName;
+
+    private String imageUrl;
+
+    private int quantity;
+
+    private double unitPrice;
+}
@@ -0,0 +1,5 @@
+package ma.sieger.productservice.events;
+
+public enum ProductChangeType {
+    CREATED, UPDATED, DELETED, STOCK_CHANGED
+}
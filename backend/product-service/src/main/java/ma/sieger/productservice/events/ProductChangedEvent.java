@@ -0,0 +1,7 @@
+package ma.sieger.productservice.events;
+
+// Raised inside the write transaction, only handed to consumers once it has committed
+public record ProductChangedEvent(
+        String productId,
+        ProductChangeType type
+) {}
@@ -0,0 +1,96 @@
+package ma.sieger.productservice.events;
+
+import ma.sieger.productservice.dtos.ProductEventDTO;
+import ma.sieger.productservice.dtos.ProductEventsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, in-memory log of committed product changes, polled by other services to invalidate
+ * their caches. Sequences are local to this instance: consumers poll every instance and get a
+ * reset when they ask for another instance id or have fallen behind the retained window.
+ * Streaming consumers (gRPC) wait for new events with {@link #awaitEventsAfter}.
+ */
+@Component
+public class ProductEventLog {
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ProductEventDTO[] ring;
+    // Not synchronized: waiting consumers would pin their (virtual) thread's carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private long nextSequence = 1;
+
+    public ProductEventLog(@Value("${product.events.capacity:10000}") int capacity) {
+        this.ring = new ProductEventDTO[capacity];
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        append(event.productId(), event.type());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        event.created().forEach(product -> append(product.getId(), ProductChangeType.CREATED));
+        event.updated().forEach(product -> append(product.getId(), ProductChangeType.UPDATED));
+    }
+
+    public void append(String productId, ProductChangeType type) {
+        lock.lock();
+        try {
+            long sequence = nextSequence++;
+            ring[(int) (sequence % ring.length)] = new ProductEventDTO(sequence, productId, type, Instant.now());
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns once an event after the given sequence is logged, or after the timeout
+    public void awaitEventsAfter(long sequence, Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = timeout.toNanos();
+            while (nextSequence - 1 <= sequence && remaining > 0) {
+                remaining = appended.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ProductEventsDTO eventsSince(String expectedInstanceId, long since, int limit) {
+        lock.lock();
+        try {
+            return readSince(expectedInstanceId, since, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ProductEventsDTO readSince(String expectedInstanceId, long since, int limit) {
+        long latest = nextSequence - 1;
+        long oldest = Math.max(1, nextSequence - ring.length);
+        boolean otherInstance = expectedInstanceId != null && !expectedInstanceId.equals(instanceId);
+        if (otherInstance || since > latest || since < oldest - 1) {
+            // Unknown position (other instance, restart or too far behind): the consumer must drop everything
+            return new ProductEventsDTO(instanceId, latest, true, List.of());
+        }
+        List<ProductEventDTO> events = new ArrayList<>();
+        for (long sequence = since + 1; sequence <= latest && events.size() < limit; sequence++) {
+            events.add(ring[(int) (sequence % ring.length)]);
+        }
+        long position = events.isEmpty() ? latest : events.get(events.size() - 1).sequence();
+        return new ProductEventsDTO(instanceId, position, false, events);
+    }
+}
@@ -0,0 +1,11 @@
+package ma.sieger.productservice.events;
+
+import ma.sieger.productservice.entities.Product;
+
+import java.util.List;
+
+// One per committed import batch, the products are written with JDBC so no entity event exists for them
+public record ProductsImportedEvent(
+        List<Product> created,
+        List<Product> updated
+) {}
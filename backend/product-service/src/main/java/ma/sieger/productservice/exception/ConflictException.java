@@ -0,0 +1,9 @@
+package ma.sieger.productservice.exception;
+
+// A business conflict with the current state (e.g. reserving on a released reservation): 409, ABORTED over gRPC
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,62 @@
+package ma.sieger.productservice.grpc;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Bearer token authentication of gRPC calls, the gRPC counterpart of the resource server filter chain:
+ * same decoder and role mapping. Calls without a token go through anonymously, each RPC then decides.
+ */
+public class GrpcAuthenticationInterceptor implements ServerInterceptor {
+
+    static final Context.Key<Authentication> AUTHENTICATION = Context.key("authentication");
+
+    private static final Metadata.Key<String> AUTHORIZATION =
+            Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+    private static final String BEARER = "Bearer ";
+
+    private final JwtDecoder jwtDecoder;
+    private final Converter<Jwt, AbstractAuthenticationToken> authenticationConverter;
+
+    public GrpcAuthenticationInterceptor(JwtDecoder jwtDecoder,
+                                         Converter<Jwt, AbstractAuthenticationToken> authenticationConverter) {
+        this.jwtDecoder = jwtDecoder;
+        this.authenticationConverter = authenticationConverter;
+    }
+
+    @Override
+    public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers,
+                                                      ServerCallHandler<Q, R> next) {
+        String authorization = headers.get(AUTHORIZATION);
+        if (authorization == null) {
+            return next.startCall(call, headers);
+        }
+        if (!authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return reject(call, "Bearer token expected");
+        }
+        Authentication authentication;
+        try {
+            authentication = authenticationConverter.convert(jwtDecoder.decode(authorization.substring(BEARER.length())));
+        } catch (JwtException e) {
+            return reject(call, "Invalid token");
+        }
+        return Contexts.interceptCall(Context.current().withValue(AUTHENTICATION, authentication), call, headers, next);
+    }
+
+    private static <Q, R> ServerCall.Listener<Q> reject(ServerCall<Q, R> call, String description) {
+        call.close(Status.UNAUTHENTICATED.withDescription(description), new Metadata());
+        return new ServerCall.Listener<>() {
+        };
+    }
+}
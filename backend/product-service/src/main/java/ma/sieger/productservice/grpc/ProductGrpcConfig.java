@@ -0,0 +1,38 @@
+package ma.sieger.productservice.grpc;
+
+import jakarta.validation.Validator;
+import ma.sieger.commons.security.CachingJwtDecoder;
+import ma.sieger.productservice.events.ProductEventLog;
+import ma.sieger.productservice.service.ProductService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "product.grpc.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductGrpcConfig {
+
+    @Bean
+    public ProductGrpcService productGrpcService(ProductService productService, ProductEventLog productEventLog,
+                                                 Validator validator,
+                                                 @Value("${product.grpc.changes-wait:PT10S}") Duration changesWait) {
+        return new ProductGrpcService(productService, productEventLog, validator, changesWait);
+    }
+
+    @Bean
+    public ProductGrpcServer productGrpcServer(ProductGrpcService productGrpcService,
+                                               JwtDecoder jwtDecoder,
+                                               JwtAuthenticationConverter jwtAuthenticationConverter,
+                                               @Value("${product.jwt-cache.max-size:10000}") long jwtCacheSize,
+                                               @Value("${product.grpc.port:9091}") int port,
+                                               @Value("${product.grpc.shutdown-timeout:PT10S}") Duration shutdownTimeout) {
+        GrpcAuthenticationInterceptor authenticationInterceptor = new GrpcAuthenticationInterceptor(
+                new CachingJwtDecoder(jwtDecoder, jwtCacheSize), jwtAuthenticationConverter);
+        return new ProductGrpcServer(productGrpcService, authenticationInterceptor, port, shutdownTimeout);
+    }
+}
@@ -0,0 +1,78 @@
+package ma.sieger.productservice.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Netty gRPC server next to the HTTP one, started and stopped with the application context.
+ * Calls run on virtual threads: the service code is blocking (JPA), like the REST controllers.
+ */
+@Slf4j
+public class ProductGrpcServer implements SmartLifecycle {
+
+    private final BindableService service;
+    private final GrpcAuthenticationInterceptor authenticationInterceptor;
+    private final int port;
+    private final Duration shutdownTimeout;
+    private Server server;
+    private ExecutorService executor;
+
+    public ProductGrpcServer(BindableService service, GrpcAuthenticationInterceptor authenticationInterceptor,
+                             int port, Duration shutdownTimeout) {
+        this.service = service;
+        this.authenticationInterceptor = authenticationInterceptor;
+        this.port = port;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    @Override
+    public synchronized void start() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                .executor(executor)
+                .addService(ServerInterceptors.intercept(service, authenticationInterceptor))
+                .build();
+        try {
+            server.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("gRPC server could not listen on port " + port, e);
+        }
+        log.info("gRPC server listening on port {}", server.getPort());
+    }
+
+    // In-flight calls get the shutdown timeout to finish, open change streams are then cut
+    @Override
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            server.shutdownNow();
+        }
+        executor.shutdownNow();
+        server = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+}
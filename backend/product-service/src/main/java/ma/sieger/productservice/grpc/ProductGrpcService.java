@@ -0,0 +1,260 @@
+package ma.sieger.productservice.grpc;
+
+import com.google.protobuf.Empty;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import ma.sieger.productservice.dtos.ProductEventsDTO;
+import ma.sieger.productservice.dtos.ProductPageDTO;
+import ma.sieger.productservice.dtos.ProductResponseDTO;
+import ma.sieger.productservice.dtos.ProductSummaryDTO;
+import ma.sieger.productservice.dtos.ReservedProductDTO;
+import ma.sieger.productservice.dtos.StockReservationRequestDTO;
+import ma.sieger.productservice.events.ProductEventLog;
+import ma.sieger.productservice.exception.ConflictException;
+import ma.sieger.productservice.grpc.proto.DecreaseStockRequest;
+import ma.sieger.productservice.grpc.proto.GetProductRequest;
+import ma.sieger.productservice.grpc.proto.GetProductsRequest;
+import ma.sieger.productservice.grpc.proto.ListProductsRequest;
+import ma.sieger.productservice.grpc.proto.Product;
+import ma.sieger.productservice.grpc.proto.ProductCatalogGrpc;
+import ma.sieger.productservice.grpc.proto.ProductChange;
+import ma.sieger.productservice.grpc.proto.ProductChanges;
+import ma.sieger.productservice.grpc.proto.ProductList;
+import ma.sieger.productservice.grpc.proto.ProductPage;
+import ma.sieger.productservice.grpc.proto.ReleaseStockRequest;
+import ma.sieger.productservice.grpc.proto.ReserveStockRequest;
+import ma.sieger.productservice.grpc.proto.ReservedProduct;
+import ma.sieger.productservice.grpc.proto.ReservedProducts;
+import ma.sieger.productservice.grpc.proto.WatchProductChangesRequest;
+import ma.sieger.productservice.service.ProductService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.Authentication;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * gRPC face of {@link ProductService}, for order-service: same operations, rules and roles as the
+ * matching REST endpoints. Errors map to the status codes closest to the REST ones
+ * (404 NOT_FOUND, 400 INVALID_ARGUMENT, 409 ABORTED).
+ */
+@Slf4j
+public class ProductGrpcService extends ProductCatalogGrpc.ProductCatalogImplBase {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int CHANGES_BATCH_SIZE = 500;
+
+    private final ProductService productService;
+    private final ProductEventLog productEventLog;
+    private final Validator validator;
+    private final Duration changesWait;
+
+    public ProductGrpcService(ProductService productService, ProductEventLog productEventLog, Validator validator,
+                              Duration changesWait) {
+        this.productService = productService;
+        this.productEventLog = productEventLog;
+        this.validator = validator;
+        this.changesWait = changesWait;
+    }
+
+    @Override
+    public void getProduct(GetProductRequest request, StreamObserver<Product> responseObserver) {
+        unary(responseObserver, () -> toProto(productService.getProductById(request.getId())));
+    }
+
+    @Override
+    public void getProducts(GetProductsRequest request, StreamObserver<ProductList> responseObserver) {
+        unary(responseObserver, () -> ProductList.newBuilder()
+                .addAllProducts(productService.getProductsByIds(request.getIdsList()).stream()
+                        .map(ProductGrpcService::toProto).toList())
+                .build());
+    }
+
+    @Override
+    public void listProducts(ListProductsRequest request, StreamObserver<ProductPage> responseObserver) {
+        unary(responseObserver, () -> {
+            PageRequest pageRequest = PageRequest.of(Math.max(request.getPage(), 0),
+                    Math.max(1, Math.min(request.getSize(), MAX_PAGE_SIZE)), Sort.by("name").and(Sort.by("id")));
+            ProductPageDTO page = productService.getProducts(null, null, false, null, pageRequest);
+            return ProductPage.newBuilder()
+                    .addAllContent(page.content().stream().map(ProductGrpcService::toProto).toList())
+                    .setPage(page.page())
+                    .setSize(page.size())
+                    .setTotalElements(page.totalElements())
+                    .setTotalPages(page.totalPages())
+                    .build();
+        });
+    }
+
+    @Override
+    public void decreaseStock(DecreaseStockRequest request, StreamObserver<Product> responseObserver) {
+        unary(responseObserver, () -> {
+            requireRole("CLIENT");
+            return toProto(productService.decreaseStock(request.getId(), request.getQuantity()));
+        });
+    }
+
+    @Override
+    public void reserveStock(ReserveStockRequest request, StreamObserver<ReservedProducts> responseObserver) {
+        unary(responseObserver, () -> {
+            requireRole("SERVICE");
+            StockReservationRequestDTO reservation = new StockReservationRequestDTO(request.getProductsMap());
+            Set<ConstraintViolation<StockReservationRequestDTO>> violations = validator.validate(reservation);
+            if (!violations.isEmpty()) {
+                throw new IllegalArgumentException(violations.stream().map(ConstraintViolation::getMessage)
+                        .sorted().collect(Collectors.joining("; ")));
+            }
+            return ReservedProducts.newBuilder()
+                    .addAllProducts(productService.reserveStock(request.getReservationId(), reservation.products())
+                            .stream().map(ProductGrpcService::toProto).toList())
+                    .build();
+        });
+    }
+
+    @Override
+    public void releaseStock(ReleaseStockRequest request, StreamObserver<Empty> responseObserver) {
+        unary(responseObserver, () -> {
+            requireRole("SERVICE");
+            productService.releaseStock(request.getReservationId());
+            return Empty.getDefaultInstance();
+        });
+    }
+
+    // The first message tells where the log stands, the next ones carry the events as they are committed
+    @Override
+    public void watchProductChanges(WatchProductChangesRequest request, StreamObserver<ProductChanges> responseObserver) {
+        ServerCallStreamObserver<ProductChanges> observer = (ServerCallStreamObserver<ProductChanges>) responseObserver;
+        String instanceId = request.hasInstanceId() ? request.getInstanceId() : null;
+        long sequence = request.getAfterSequence();
+        boolean first = true;
+        try {
+            while (!observer.isCancelled()) {
+                ProductEventsDTO events = productEventLog.eventsSince(instanceId, sequence, CHANGES_BATCH_SIZE);
+                if (first || events.reset() || !events.events().isEmpty()) {
+                    observer.onNext(toProto(events));
+                    first = false;
+                }
+                instanceId = events.instanceId();
+                sequence = events.latestSequence();
+                if (events.events().size() < CHANGES_BATCH_SIZE) {
+                    productEventLog.awaitEventsAfter(sequence, changesWait);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            observer.onError(Status.UNAVAILABLE.withDescription("Server shutting down").asRuntimeException());
+        } catch (RuntimeException e) {
+            // Cancelled by the client while sending
+            if (!observer.isCancelled()) {
+                observer.onError(toStatus(e).asRuntimeException());
+            }
+        }
+    }
+
+    private static <T> void unary(StreamObserver<T> responseObserver, Supplier<T> call) {
+        T response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatus(e).asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    private static void requireRole(String role) {
+        Authentication authentication = GrpcAuthenticationInterceptor.AUTHENTICATION.get();
+        if (authentication == null) {
+            throw Status.UNAUTHENTICATED.withDescription("Bearer token required").asRuntimeException();
+        }
+        boolean granted = authentication.getAuthorities().stream()
+                .anyMatch(authority -> ("ROLE_" + role).equals(authority.getAuthority()));
+        if (!granted) {
+            throw Status.PERMISSION_DENIED.withDescription("Role " + role + " required").asRuntimeException();
+        }
+    }
+
+    private static Status toStatus(RuntimeException e) {
+        if (e instanceof StatusRuntimeException statusException) {
+            return statusException.getStatus();
+        }
+        if (e instanceof EntityNotFoundException) {
+            return Status.NOT_FOUND.withDescription(e.getMessage());
+        }
+        if (e instanceof IllegalArgumentException) {
+            return Status.INVALID_ARGUMENT.withDescription(e.getMessage());
+        }
+        if (e instanceof ConflictException || e instanceof OptimisticLockingFailureException) {
+            return Status.ABORTED.withDescription(e.getMessage());
+        }
+        log.error("gRPC call failed", e);
+        return Status.INTERNAL.withDescription("Internal error");
+    }
+
+    private static Product toProto(ProductResponseDTO product) {
+        Product.Builder builder = Product.newBuilder()
+                .setId(product.id())
+                .setName(product.name())
+                .setPrice(product.price())
+                .setQuantity(product.quantity())
+                .setVersion(product.version());
+        if (product.description() != null) {
+            builder.setDescription(product.description());
+        }
+        if (product.imageUrl() != null) {
+            builder.setImageUrl(product.imageUrl());
+        }
+        return builder.build();
+    }
+
+    private static Product toProto(ProductSummaryDTO product) {
+        Product.Builder builder = Product.newBuilder()
+                .setId(product.id())
+                .setName(product.name())
+                .setPrice(product.price())
+                .setQuantity(product.quantity())
+                .setVersion(product.version());
+        if (product.imageUrl() != null) {
+            builder.setImageUrl(product.imageUrl());
+        }
+        return builder.build();
+    }
+
+    private static ReservedProduct toProto(ReservedProductDTO product) {
+        ReservedProduct.Builder builder = ReservedProduct.newBuilder()
+                .setProductId(product.productId())
+                .setName(product.name())
+                .setQuantity(product.quantity())
+                .setUnitPrice(product.unitPrice());
+        if (product.imageUrl() != null) {
+            builder.setImageUrl(product.imageUrl());
+        }
+        return builder.build();
+    }
+
+    private static ProductChanges toProto(ProductEventsDTO events) {
+        return ProductChanges.newBuilder()
+                .setInstanceId(events.instanceId())
+                .setLatestSequence(events.latestSequence())
+                .setReset(events.reset())
+                .addAllChanges(events.events().stream()
+                        .map(event -> ProductChange.newBuilder()
+                                .setSequence(event.sequence())
+                                .setProductId(event.productId())
+                                .setType(event.type().name())
+                                .build())
+                        .toList())
+                .build();
+    }
+}
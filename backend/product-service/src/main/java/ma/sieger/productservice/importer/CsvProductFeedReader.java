@@ -0,0 +1,148 @@
+package ma.sieger.productservice.importer;
+
+import ma.sieger.productservice.dtos.ProductRequestDTO;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * RFC 4180 CSV feed: comma separated, fields optionally double-quoted (quotes doubled inside, line
+ * breaks allowed). The header row names the columns in any order: name and price are required,
+ * description, quantity and imageUrl (or image_url) are optional, unknown columns are ignored.
+ * An optional column that is missing or blank leaves the existing product's value unchanged.
+ */
+final class CsvProductFeedReader implements ProductFeedReader {
+
+    private final Reader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    // Physical line of the next character, records may span several lines
+    private long line = 1;
+
+    CsvProductFeedReader(Reader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("The CSV feed is empty");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).replace("\uFEFF", "").strip().toLowerCase(Locale.ROOT).replace("_", "");
+            columns.putIfAbsent(column, i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new IllegalArgumentException("The CSV header must contain at least the name and price columns");
+        }
+    }
+
+    @Override
+    public ProductFeedRow next() throws IOException {
+        while (true) {
+            long start = line;
+            List<String> record = readRecord();
+            if (record == null) {
+                return null;
+            }
+            if (record.size() == 1 && record.getFirst().isBlank()) {
+                continue;
+            }
+            return toRow(start, record);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private ProductFeedRow toRow(long start, List<String> record) {
+        try {
+            String quantity = field(record, "quantity");
+            return ProductFeedRow.parsed(start, new ProductRequestDTO(
+                    field(record, "name"),
+                    field(record, "description"),
+                    price(field(record, "price")),
+                    quantity(quantity),
+                    field(record, "imageurl")), quantity != null);
+        } catch (NumberFormatException e) {
+            return ProductFeedRow.invalid(start, e.getMessage());
+        }
+    }
+
+    // Blank fields and missing columns both read as null
+    private String field(List<String> record, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size() || record.get(index).isBlank()) {
+            return null;
+        }
+        return record.get(index).strip();
+    }
+
+    private static Double price(String value) {
+        try {
+            return value == null ? null : Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Invalid price: " + value);
+        }
+    }
+
+    private static int quantity(String value) {
+        try {
+            return value == null ? 0 : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Invalid quantity: " + value);
+        }
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        while (true) {
+            if (c == -1) {
+                if (quoted) {
+                    throw new IllegalArgumentException("Unterminated quoted field at line " + line);
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            if (++length > MAX_ROW_LENGTH) {
+                throw new IllegalArgumentException("Record ending at line " + line + " is longer than "
+                        + MAX_ROW_LENGTH + " characters");
+            }
+            if (quoted) {
+                if (c == '"') {
+                    c = reader.read();
+                    if (c != '"') {
+                        // Closing quote, the character after it is handled as unquoted
+                        quoted = false;
+                        continue;
+                    }
+                } else if (c == '\n') {
+                    line++;
+                }
+                field.append((char) c);
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ma.sieger.productservice.importer;
+
+import ma.sieger.productservice.dtos.ProductRequestDTO;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// One ProductRequestDTO JSON object per line, blank lines are skipped. Missing or null optional
+// fields leave the existing product's value unchanged
+final class NdjsonProductFeedReader implements ProductFeedReader {
+
+    private final Reader reader;
+    private final JsonMapper jsonMapper;
+    private long line;
+
+    NdjsonProductFeedReader(Reader reader, JsonMapper jsonMapper) {
+        this.reader = reader;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public ProductFeedRow next() throws IOException {
+        String text;
+        while ((text = ProductFeedReader.readLine(reader, line + 1)) != null) {
+            long current = ++line;
+            if (current == 1) {
+                text = text.replace("\uFEFF", "");
+            }
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                JsonNode node = jsonMapper.readTree(text);
+                return ProductFeedRow.parsed(current, jsonMapper.treeToValue(node, ProductRequestDTO.class),
+                        node.hasNonNull("quantity"));
+            } catch (JacksonException e) {
+                return ProductFeedRow.invalid(current, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
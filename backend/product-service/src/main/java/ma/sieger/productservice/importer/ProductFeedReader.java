@@ -0,0 +1,37 @@
+package ma.sieger.productservice.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads a catalog feed one row at a time, holding at most one row in memory.
+ */
+interface ProductFeedReader extends Closeable {
+
+    // A single row longer than this is a broken file (e.g. an unterminated quote), not a product
+    int MAX_ROW_LENGTH = 64 * 1024;
+
+    // Next row, or null once the feed is exhausted
+    ProductFeedRow next() throws IOException;
+
+    // Reads up to the next line feed, without the line terminator; null at end of input
+    static String readLine(Reader reader, long line) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (builder.length() == MAX_ROW_LENGTH) {
+                throw new IllegalArgumentException("Line " + line + " is longer than " + MAX_ROW_LENGTH + " characters");
+            }
+            builder.append((char) c);
+        }
+        if (c == -1 && builder.isEmpty()) {
+            return null;
+        }
+        int length = builder.length();
+        if (length > 0 && builder.charAt(length - 1) == '\r') {
+            builder.setLength(length - 1);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,16 @@
+package ma.sieger.productservice.importer;
+
+import ma.sieger.productservice.dtos.ProductRequestDTO;
+
+// A parsed feed row, or the reason it could not be parsed. Without a quantity, product.quantity() is 0
+// but the stock of an existing product is left as it is
+record ProductFeedRow(long line, ProductRequestDTO product, boolean hasQuantity, String error) {
+
+    static ProductFeedRow parsed(long line, ProductRequestDTO product, boolean hasQuantity) {
+        return new ProductFeedRow(line, product, hasQuantity, null);
+    }
+
+    static ProductFeedRow invalid(long line, String error) {
+        return new ProductFeedRow(line, null, false, error);
+    }
+}
@@ -0,0 +1,262 @@
+package ma.sieger.productservice.importer;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import ma.sieger.productservice.dtos.ProductImportErrorDTO;
+import ma.sieger.productservice.dtos.ProductImportReportDTO;
+import ma.sieger.productservice.dtos.ProductRequestDTO;
+import ma.sieger.productservice.entities.Product;
+import ma.sieger.productservice.events.ProductsImportedEvent;
+import ma.sieger.productservice.stock.HotStockManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk upsert of a catalog feed (CSV or NDJSON), streamed from the request body.
+ * <p>
+ * Rows are parsed and validated one at a time and written in batches, each in its own transaction,
+ * with plain JDBC batch statements: a row updates the product with the same name, or creates one.
+ * Optional values a row leaves out (description, quantity, image URL) keep their current value on
+ * update, so a partial feed, prices only for instance, does not wipe the rest. A batch that fails is reported row by row and the import goes on; batches already committed stay.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private static final String FIND_IDS_SQL =
+            "select name, min(id) as id from product where name in (:names) group by name";
+    private static final String INSERT_SQL =
+            "insert into product (id, name, name_key, description, price, quantity, image_url, version, last_modified) " +
+            "values (:id, :name, :nameKey, :description, :price, coalesce(:quantity, 0), :imageUrl, 0, current_timestamp)";
+    private static final String UPDATE_SQL =
+            "update product set name_key = :nameKey, description = coalesce(:description, description), price = :price, " +
+            "quantity = coalesce(:quantity, quantity), image_url = coalesce(:imageUrl, image_url), " +
+            "version = version + 1, last_modified = current_timestamp " +
+            "where id = :id";
+    // Updated rows as they are now, partial rows included, for the listeners of the import event
+    private static final String FIND_UPDATED_SQL =
+            "select id, name, description, price, quantity, image_url, version from product where id in (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final JsonMapper jsonMapper;
+    private final HotStockManager hotStockManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(NamedParameterJdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                Validator validator,
+                                JsonMapper jsonMapper,
+                                HotStockManager hotStockManager,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${product.import.batch-size:1000}") int batchSize,
+                                @Value("${product.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.jsonMapper = jsonMapper;
+        this.hotStockManager = hotStockManager;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public ProductImportReportDTO importProducts(MediaType contentType, InputStream body) throws IOException {
+        long started = System.nanoTime();
+        Charset charset = contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset();
+        ImportProgress progress = new ImportProgress();
+        List<ProductFeedRow> batch = new ArrayList<>(batchSize);
+
+        try (ProductFeedReader reader = open(contentType, new BufferedReader(new InputStreamReader(body, charset)))) {
+            ProductFeedRow row;
+            while ((row = reader.next()) != null) {
+                progress.rows++;
+                String error = row.error() != null ? row.error() : validate(row.product());
+                if (error != null) {
+                    progress.reject(row.line(), error);
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    write(batch, progress);
+                    batch.clear();
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            if (progress.rows == 0) {
+                throw e;
+            }
+            // The rest of the feed cannot be read, what was read so far is still imported
+            progress.reject(0, "Import stopped: " + e.getMessage());
+        }
+        if (!batch.isEmpty()) {
+            write(batch, progress);
+        }
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        long rowsPerSecond = progress.rows * 1000 / Math.max(durationMs, 1);
+        log.info("Product import done in {} ms ({} rows/s): {} rows, {} created, {} updated, {} rejected",
+                durationMs, rowsPerSecond, progress.rows, progress.created, progress.updated, progress.rejected);
+        return new ProductImportReportDTO(progress.rows, progress.created, progress.updated, progress.rejected,
+                durationMs, rowsPerSecond, progress.rejected > progress.errors.size(), progress.errors);
+    }
+
+    private ProductFeedReader open(MediaType contentType, Reader reader) throws IOException {
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            return new CsvProductFeedReader(reader);
+        }
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            return new NdjsonProductFeedReader(reader, jsonMapper);
+        }
+        throw new IllegalArgumentException("Unsupported feed type: " + contentType);
+    }
+
+    private String validate(ProductRequestDTO product) {
+        Set<ConstraintViolation<ProductRequestDTO>> violations = validator.validate(product);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).distinct().sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void write(List<ProductFeedRow> rows, ImportProgress progress) {
+        // Within a batch the last row for a name wins
+        Map<String, ProductFeedRow> rowsByName = new LinkedHashMap<>();
+        rows.forEach(row -> rowsByName.put(row.product().name(), row));
+        try {
+            ProductsImportedEvent imported = transactionTemplate.execute(status -> upsert(rowsByName));
+            progress.created += imported.created().size();
+            progress.updated += imported.updated().size();
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Product import batch of {} rows failed", rows.size(), e);
+            rows.forEach(row -> progress.reject(row.line(), "Not imported: " + e.getMostSpecificCause().getMessage()));
+        }
+        log.info("Product import in progress: {} rows read, {} created, {} updated, {} rejected",
+                progress.rows, progress.created, progress.updated, progress.rejected);
+    }
+
+    private ProductsImportedEvent upsert(Map<String, ProductFeedRow> rowsByName) {
+        Map<String, String> existingIds = new HashMap<>();
+        jdbcTemplate.query(FIND_IDS_SQL, Map.of("names", rowsByName.keySet()),
+                (RowCallbackHandler) resultSet -> existingIds.put(resultSet.getString("name"), resultSet.getString("id")));
+
+        Map<String, ProductFeedRow> createdRows = new LinkedHashMap<>();
+        Map<String, ProductFeedRow> updatedRows = new HashMap<>();
+        rowsByName.forEach((name, row) -> {
+            String existingId = existingIds.get(name);
+            if (existingId == null) {
+                createdRows.put(UUID.randomUUID().toString(), row);
+            } else {
+                updatedRows.put(existingId, row);
+            }
+        });
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, parameters(createdRows));
+        jdbcTemplate.batchUpdate(UPDATE_SQL, parameters(updatedRows));
+        List<Product> created = createdRows.entrySet().stream()
+                .map(row -> toProduct(row.getKey(), row.getValue().product()))
+                .toList();
+        List<Product> updated = updatedRows.isEmpty() ? List.of()
+                : jdbcTemplate.query(FIND_UPDATED_SQL, Map.of("ids", updatedRows.keySet()), (resultSet, rowNum) ->
+                        Product.builder()
+                                .id(resultSet.getString("id"))
+                                .name(resultSet.getString("name"))
+                                .nameKey(resultSet.getString("name").toLowerCase())
+                                .description(resultSet.getString("description"))
+                                .price(resultSet.getDouble("price"))
+                                .quantity(resultSet.getInt("quantity"))
+                                .imageUrl(resultSet.getString("image_url"))
+                                .version(resultSet.getLong("version"))
+                                .build());
+        // Like an admin update, an imported quantity replaces whatever a hot product had leased
+        updated.stream()
+                .filter(product -> hotStockManager.isHot(product.getId()) && updatedRows.get(product.getId()).hasQuantity())
+                .forEach(hotStockManager::onProductUpdated);
+
+        ProductsImportedEvent imported = new ProductsImportedEvent(created, updated);
+        eventPublisher.publishEvent(imported);
+        return imported;
+    }
+
+    private static Product toProduct(String id, ProductRequestDTO request) {
+        return Product.builder()
+                .id(id)
+                .name(request.name())
+                .nameKey(request.name().toLowerCase())
+                .description(request.description())
+                .price(request.price())
+                .quantity(request.quantity())
+                .imageUrl(request.imageUrl())
+                .build();
+    }
+
+    private static SqlParameterSource[] parameters(Map<String, ProductFeedRow> rowsById) {
+        return rowsById.entrySet().stream()
+                .map(row -> parameters(row.getKey(), row.getValue()))
+                .toArray(SqlParameterSource[]::new);
+    }
+
+    // Typed, so that a left out (null) value still has a type in coalesce
+    private static SqlParameterSource parameters(String id, ProductFeedRow row) {
+        ProductRequestDTO product = row.product();
+        return new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("name", product.name())
+                .addValue("nameKey", product.name().toLowerCase())
+                .addValue("description", product.description(), Types.VARCHAR)
+                .addValue("price", product.price())
+                .addValue("quantity", row.hasQuantity() ? product.quantity() : null, Types.INTEGER)
+                .addValue("imageUrl", product.imageUrl(), Types.VARCHAR);
+    }
+
+    private final class ImportProgress {
+        private long rows;
+        private long created;
+        private long updated;
+        private long rejected;
+        private final List<ProductImportErrorDTO> errors = new ArrayList<>();
+
+        private void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ProductImportErrorDTO(line, message));
+            }
+        }
+    }
+}
@@ -16,7 +16,24 @@ public class ProductMapper {
             product.getDescription(),
             product.getPrice(),
             product.getQuantity(),
-            product.getImageUrl()
+            product.getImageUrl(),
+            product.getVersion(),
+            product.getLastModified()
+        );
+    }
+
+    // Entity -> ResponseDTO, with stock that is not (only) held by the entity row. No lastModified then:
+    // the stock changes without touching the row, only the ETag (version and quantity) tells it apart
+    public ProductResponseDTO fromEntity(Product product, int availableQuantity) {
+        return new ProductResponseDTO(
+            product.getId(),
+            product.getName(),
+            product.getDescription(),
+            product.getPrice(),
+            availableQuantity,
+            product.getImageUrl(),
+            product.getVersion(),
+            null
         );
     }
 
@@ -0,0 +1,17 @@
+package ma.sieger.productservice.repository;
+
+import jakarta.persistence.LockModeType;
+import ma.sieger.productservice.entities.ProductChangeLogHead;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ProductChangeLogHeadRepository extends JpaRepository<ProductChangeLogHead, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from ProductChangeLogHead h where h.id = :id")
+    Optional<ProductChangeLogHead> findByIdForUpdate(@Param("id") int id);
+}
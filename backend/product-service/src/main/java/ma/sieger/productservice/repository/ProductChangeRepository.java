@@ -0,0 +1,29 @@
+package ma.sieger.productservice.repository;
+
+import ma.sieger.productservice.entities.ProductChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+    boolean existsByVersionIsNull();
+
+    // Committed but not sequenced yet, in insertion order
+    List<ProductChange> findByVersionIsNullOrderById(Limit limit);
+
+    List<ProductChange> findByVersionGreaterThanOrderByVersion(long version, Limit limit);
+
+    // Compaction: a change superseded by a later one of the same product is dropped once old enough
+    @Transactional
+    @Modifying
+    @Query("delete from ProductChange c where c.version is not null and c.occurredAt < :before " +
+            "and exists (select n.id from ProductChange n where n.productId = c.productId and n.version > c.version)")
+    int deleteSupersededBefore(@Param("before") Instant before);
+}
@@ -1,8 +1,80 @@
 package ma.sieger.productservice.repository;
 
+import jakarta.persistence.LockModeType;
+import ma.sieger.productservice.dtos.ProductSummaryDTO;
 import ma.sieger.productservice.entities.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, String> {
     boolean existsByName(String name);
+
+    // A hot product can be sold out on its row and still sellable from its lease: leasedInStockIds lists those
+    String CATALOG_FILTER = "where (:minPrice is null or p.price >= :minPrice) " +
+            "and (:maxPrice is null or p.price <= :maxPrice) " +
+            "and (:inStock = false or p.quantity > 0 or p.id in :leasedInStockIds) " +
+            "and (:prefixPattern is null or p.nameKey like :prefixPattern escape '\\')";
+
+    // Prefix search is a LIKE 'prefix%' on the name key, served by the text_pattern_ops index below: a plain
+    // index (or a [prefix, prefix + U+FFFF) range) only matches prefixes correctly under the C collation
+    @Query(value = "select new ma.sieger.productservice.dtos.ProductSummaryDTO(p.id, p.name, p.price, p.quantity, p.imageUrl, p.version) " +
+            "from Product p " + CATALOG_FILTER,
+            countQuery = "select count(p) from Product p " + CATALOG_FILTER)
+    Page<ProductSummaryDTO> findCatalogPage(@Param("minPrice") Double minPrice,
+                                            @Param("maxPrice") Double maxPrice,
+                                            @Param("inStock") boolean inStock,
+                                            @Param("leasedInStockIds") Collection<String> leasedInStockIds,
+                                            @Param("prefixPattern") String prefixPattern,
+                                            Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update Product p set p.nameKey = lower(p.name) where p.nameKey is null")
+    int fillMissingNameKeys();
+
+    // Operator class indexes cannot be declared on the entity; idx_product_name_key keeps serving name sorts
+    @Transactional
+    @Modifying
+    @Query(value = "create index if not exists idx_product_name_key_pattern on product (name_key text_pattern_ops)",
+            nativeQuery = true)
+    void createNameKeyPatternIndex();
+
+    // Rows are locked in id order so concurrent multi-line reservations cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id in :ids order by p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<String> ids);
+
+    // Returns the number of updated rows: 0 means the product is missing or has not enough stock
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity - :quantity, p.version = p.version + 1, p.lastModified = instant " +
+            "where p.id = :id and p.quantity >= :quantity")
+    int decreaseStockIfAvailable(@Param("id") String id, @Param("quantity") int quantity);
+
+    // Hot products whose lease ran short, in the middle of a request: the persistence context is left alone
+    @Modifying(flushAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity - :quantity, p.version = p.version + 1, p.lastModified = instant " +
+            "where p.id = :id and p.quantity >= :quantity")
+    int decreaseUnleasedStockIfAvailable(@Param("id") String id, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity + :quantity, p.version = p.version + 1, p.lastModified = instant " +
+            "where p.id = :id")
+    int increaseStock(@Param("id") String id, @Param("quantity") int quantity);
+
+    // Keyset pages in id order, for change feed snapshots
+    List<Product> findByIdGreaterThanOrderById(String after, Limit limit);
+
+    @Query("select p.quantity from Product p where p.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") String id);
 }
\ No newline at end of file
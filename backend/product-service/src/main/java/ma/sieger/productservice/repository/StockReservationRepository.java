@@ -0,0 +1,17 @@
+package ma.sieger.productservice.repository;
+
+import jakarta.persistence.LockModeType;
+import ma.sieger.productservice.entities.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from StockReservation r where r.id = :id")
+    Optional<StockReservation> findByIdForUpdate(@Param("id") String id);
+}
@@ -0,0 +1,185 @@
+package ma.sieger.productservice.search;
+
+import ma.sieger.productservice.dtos.ProductSearchHitDTO;
+import ma.sieger.productservice.entities.Product;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product names and descriptions, ranked with BM25.
+ * The last query term is also matched as a prefix so the same search serves typeahead.
+ */
+public class ProductSearchIndex {
+
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final double PREFIX_MATCH_FACTOR = 0.7;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, IndexedProduct> products = new HashMap<>();
+    // term -> (product id -> weighted term frequency)
+    private final NavigableMap<String, Map<String, Double>> postings = new TreeMap<>();
+    private double totalLength;
+
+    public void index(Product product) {
+        Map<String, Double> termWeights = new HashMap<>();
+        ProductTokenizer.tokenize(product.getName())
+                .forEach(term -> termWeights.merge(term, NAME_WEIGHT, Double::sum));
+        ProductTokenizer.tokenize(product.getDescription())
+                .forEach(term -> termWeights.merge(term, DESCRIPTION_WEIGHT, Double::sum));
+        double length = termWeights.values().stream().mapToDouble(Double::doubleValue).sum();
+        IndexedProduct indexed = new IndexedProduct(product.getId(), product.getName(), product.getPrice(),
+                product.getImageUrl(), termWeights, length);
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(product.getId());
+            products.put(indexed.id(), indexed);
+            termWeights.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(indexed.id(), weight));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return products.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<ProductSearchHitDTO> search(String query, int limit) {
+        List<String> terms = ProductTokenizer.tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (products.isEmpty()) {
+                return List.of();
+            }
+            Map<String, Double> scores = new HashMap<>();
+            double averageLength = totalLength / products.size();
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                score(term, 1.0, averageLength, scores);
+                if (i == terms.size() - 1) {
+                    for (String completion : completions(term)) {
+                        if (!completion.equals(term)) {
+                            score(completion, PREFIX_MATCH_FACTOR, averageLength, scores);
+                        }
+                    }
+                }
+            }
+            return topHits(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Indexed terms starting with the prefix, most frequent first
+    public List<String> complete(String prefix, int limit) {
+        String normalized = ProductTokenizer.normalize(prefix).trim();
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return postings.subMap(normalized, true, normalized + Character.MAX_VALUE, false).entrySet().stream()
+                    .sorted(Comparator.comparingInt((Map.Entry<String, Map<String, Double>> e) -> e.getValue().size())
+                            .reversed())
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<String> completions(String prefix) {
+        List<String> terms = new ArrayList<>();
+        for (String term : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).keySet()) {
+            if (terms.size() == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            terms.add(term);
+        }
+        return terms;
+    }
+
+    private void score(String term, double factor, double averageLength, Map<String, Double> scores) {
+        Map<String, Double> matches = postings.get(term);
+        if (matches == null) {
+            return;
+        }
+        int documentCount = products.size();
+        double idf = Math.log(1 + (documentCount - matches.size() + 0.5) / (matches.size() + 0.5));
+        matches.forEach((productId, frequency) -> {
+            double length = products.get(productId).length();
+            double tf = frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+            scores.merge(productId, factor * idf * tf, Double::sum);
+        });
+    }
+
+    private List<ProductSearchHitDTO> topHits(Map<String, Double> scores, int limit) {
+        PriorityQueue<Map.Entry<String, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<ProductSearchHitDTO> hits = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Map.Entry<String, Double> entry = top.poll();
+            IndexedProduct product = products.get(entry.getKey());
+            hits.add(new ProductSearchHitDTO(product.id(), product.name(), product.price(),
+                    product.imageUrl(), entry.getValue()));
+        }
+        return hits.reversed();
+    }
+
+    private void removeUnlocked(String productId) {
+        IndexedProduct previous = products.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        previous.termWeights().keySet().forEach(term -> {
+            Map<String, Double> matches = postings.get(term);
+            matches.remove(productId);
+            if (matches.isEmpty()) {
+                postings.remove(term);
+            }
+        });
+        totalLength -= previous.length();
+    }
+
+    private record IndexedProduct(String id, String name, double price, String imageUrl,
+                                  Map<String, Double> termWeights, double length) {}
+}
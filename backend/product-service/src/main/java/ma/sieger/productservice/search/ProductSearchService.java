@@ -0,0 +1,134 @@
+package ma.sieger.productservice.search;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.sieger.productservice.dtos.ProductSearchHitDTO;
+import ma.sieger.productservice.entities.Product;
+import ma.sieger.productservice.events.ProductChangedEvent;
+import ma.sieger.productservice.events.ProductsImportedEvent;
+import ma.sieger.productservice.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the in-memory search index in sync with the catalog. Local writes are applied after commit;
+ * the periodic rebuild picks up writes made through other instances. Products written while a rebuild
+ * scans the table are re-read and applied to the new index before it replaces the current one.
+ */
+@Service
+@Slf4j
+public class ProductSearchService {
+
+    private static final int BOOTSTRAP_PAGE_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private volatile ProductSearchIndex index = new ProductSearchIndex();
+    // Swapping the index and applying a local write never interleave
+    private final Object writeLock = new Object();
+    // Ids written since the running rebuild started, null when none is running
+    private Set<String> writtenDuringRebuild;
+
+    public ProductSearchService(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    public List<ProductSearchHitDTO> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    public List<String> complete(String prefix, int limit) {
+        return index.complete(prefix, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${product.search.rebuild-interval-ms:300000}",
+            fixedDelayString = "${product.search.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        synchronized (writeLock) {
+            writtenDuringRebuild = new HashSet<>();
+        }
+        ProductSearchIndex rebuilt = new ProductSearchIndex();
+        try {
+            PageRequest pageRequest = PageRequest.of(0, BOOTSTRAP_PAGE_SIZE, Sort.by("id"));
+            Page<Product> page;
+            do {
+                page = productRepository.findAll(pageRequest);
+                page.forEach(rebuilt::index);
+                pageRequest = pageRequest.next();
+            } while (page.hasNext());
+
+            // The scan may have read some of these before their write: re-read them until none are left
+            while (true) {
+                Set<String> written;
+                synchronized (writeLock) {
+                    if (writtenDuringRebuild.isEmpty()) {
+                        index = rebuilt;
+                        writtenDuringRebuild = null;
+                        break;
+                    }
+                    written = writtenDuringRebuild;
+                    writtenDuringRebuild = new HashSet<>();
+                }
+                Set<String> missing = new HashSet<>(written);
+                productRepository.findAllById(written).forEach(product -> {
+                    rebuilt.index(product);
+                    missing.remove(product.getId());
+                });
+                missing.forEach(rebuilt::remove);
+            }
+        } catch (RuntimeException e) {
+            // The current index stays, the next rebuild starts over
+            synchronized (writeLock) {
+                writtenDuringRebuild = null;
+            }
+            throw e;
+        }
+        log.info("Product search index built with {} products", rebuilt.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> {
+                Product product = productRepository.findById(event.productId()).orElse(null);
+                write(List.of(event.productId()), current -> {
+                    if (product == null) {
+                        current.remove(event.productId());
+                    } else {
+                        current.index(product);
+                    }
+                });
+            }
+            case DELETED -> write(List.of(event.productId()), current -> current.remove(event.productId()));
+            // Stock levels are not searchable
+            case STOCK_CHANGED -> { }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        List<Product> products = Stream.concat(event.created().stream(), event.updated().stream()).toList();
+        write(products.stream().map(Product::getId).toList(), current -> products.forEach(current::index));
+    }
+
+    private void write(Collection<String> productIds, Consumer<ProductSearchIndex> change) {
+        synchronized (writeLock) {
+            change.accept(index);
+            if (writtenDuringRebuild != null) {
+                writtenDuringRebuild.addAll(productIds);
+            }
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package ma.sieger.productservice.service;
 
+import ma.sieger.productservice.dtos.ProductPageDTO;
 import ma.sieger.productservice.dtos.ProductRequestDTO;
 import ma.sieger.productservice.dtos.ProductResponseDTO;
+import ma.sieger.productservice.dtos.ReservedProductDTO;
+import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ProductService {
     ProductResponseDTO createProduct(ProductRequestDTO productRequestDTO);
-    List<ProductResponseDTO> getAllProducts();
+    ProductPageDTO getProducts(Double minPrice, Double maxPrice, boolean inStock, String namePrefix, Pageable pageable);
     ProductResponseDTO getProductById(String id);
+    List<ProductResponseDTO> getProductsByIds(Collection<String> ids);
     ProductResponseDTO updateProduct(String id, ProductRequestDTO productRequestDTO);
     void deleteProduct(String id);
     ProductResponseDTO decreaseStock(String id, int quantity);
+    // Idempotent per reservation id, a reservation is released at most once
+    List<ReservedProductDTO> reserveStock(String reservationId, Map<String, Integer> products);
+    void releaseStock(String reservationId);
 }
\ No newline at end of file
@@ -2,16 +2,40 @@ package ma.sieger.productservice.service.impl;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import ma.sieger.productservice.dtos.ProductPageDTO;
 import ma.sieger.productservice.dtos.ProductRequestDTO;
 import ma.sieger.productservice.dtos.ProductResponseDTO;
+import ma.sieger.productservice.dtos.ProductSummaryDTO;
+import ma.sieger.productservice.dtos.ReservedProductDTO;
 import ma.sieger.productservice.entities.Product;
+import ma.sieger.productservice.entities.StockReservation;
+import ma.sieger.productservice.entities.StockReservationLine;
+import ma.sieger.productservice.events.ProductChangeType;
+import ma.sieger.productservice.events.ProductChangedEvent;
+import ma.sieger.productservice.exception.ConflictException;
 import ma.sieger.productservice.mappers.ProductMapper;
 import ma.sieger.productservice.repository.ProductRepository;
+import ma.sieger.productservice.repository.StockReservationRepository;
 import ma.sieger.productservice.service.ProductService;
+import ma.sieger.productservice.stock.HotStockManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,28 +43,56 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
+    // Upper bound of a batch lookup, order-service asks for at most order.product-lookup.batch-size ids at once
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final StockReservationRepository stockReservationRepository;
+    private final HotStockManager hotStockManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public ProductResponseDTO createProduct(ProductRequestDTO productRequestDTO) {
         Product product = productMapper.toEntity(productRequestDTO);
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId(), ProductChangeType.CREATED));
         return productMapper.fromEntity(savedProduct);
     }
 
     @Override
-    public List<ProductResponseDTO> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(productMapper::fromEntity)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public ProductPageDTO getProducts(Double minPrice, Double maxPrice, boolean inStock, String namePrefix, Pageable pageable) {
+        // LIKE wildcards typed by the user are matched literally
+        String prefixPattern = namePrefix == null || namePrefix.isBlank() ? null : namePrefix.trim().toLowerCase()
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+
+        Page<ProductSummaryDTO> page = productRepository.findCatalogPage(minPrice, maxPrice, inStock,
+                        hotStockManager.inStockIds(), prefixPattern, pageable)
+                .map(this::withLiveStock);
+        return new ProductPageDTO(page.getContent(), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages());
     }
 
     @Override
     public ProductResponseDTO getProductById(String id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + id));
-        return productMapper.fromEntity(product);
+        return toResponse(product);
+    }
+
+    @Override
+    public List<ProductResponseDTO> getProductsByIds(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Too many product IDs: " + ids.size() + ", at most " + MAX_BATCH_SIZE);
+        }
+        // Unknown IDs are simply absent from the result, the caller decides how to handle them
+        return productRepository.findAllById(new HashSet<>(ids)).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -55,6 +107,8 @@ public class ProductServiceImpl implements ProductService {
         product.setImageUrl(productRequestDTO.imageUrl());
 
         Product updatedProduct = productRepository.save(product);
+        hotStockManager.onProductUpdated(updatedProduct);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, ProductChangeType.UPDATED));
         return productMapper.fromEntity(updatedProduct);
     }
 
@@ -64,19 +118,206 @@ public class ProductServiceImpl implements ProductService {
             throw new EntityNotFoundException("Product not found with ID: " + id);
         }
         productRepository.deleteById(id);
+        hotStockManager.onProductDeleted(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, ProductChangeType.DELETED));
     }
 
     @Override
     public ProductResponseDTO decreaseStock(String id, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Invalid quantity for product " + id + ": " + quantity);
+        }
+
+        if (hotStockManager.isHot(id)) {
+            return decreaseHotStock(id, quantity);
+        }
+
+        // Check and decrement in a single conditional UPDATE so concurrent buyers cannot oversell
+        int updatedRows = productRepository.decreaseStockIfAvailable(id, quantity);
+
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + id));
-        
-        if (product.getQuantity() < quantity) {
+
+        if (updatedRows == 0) {
             throw new IllegalArgumentException("Insufficient stock. Available: " + product.getQuantity() + ", Requested: " + quantity);
         }
-        
-        product.setQuantity(product.getQuantity() - quantity);
-        Product updatedProduct = productRepository.save(product);
-        return productMapper.fromEntity(updatedProduct);
+
+        eventPublisher.publishEvent(new ProductChangedEvent(id, ProductChangeType.STOCK_CHANGED));
+        return productMapper.fromEntity(product);
+    }
+
+    @Override
+    public List<ReservedProductDTO> reserveStock(String reservationId, Map<String, Integer> products) {
+        Optional<StockReservation> existing = stockReservationRepository.findByIdForUpdate(reservationId);
+        if (existing.isPresent()) {
+            return replayReservation(existing.get());
+        }
+
+        products.forEach((id, quantity) -> {
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Invalid quantity for product " + id + ": " + quantity);
+            }
+        });
+
+        Set<String> coldIds = products.keySet().stream()
+                .filter(id -> !hotStockManager.isHot(id))
+                .collect(Collectors.toSet());
+        Map<String, Product> lockedProducts = productRepository.findAllByIdForUpdate(coldIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // Validate every line before touching any stock, the whole reservation succeeds or fails as one
+        coldIds.forEach(id -> {
+            Product product = lockedProducts.get(id);
+            if (product == null) {
+                throw new EntityNotFoundException("Product not found with ID: " + id);
+            }
+            if (product.getQuantity() < products.get(id)) {
+                throw new IllegalArgumentException("Insufficient stock for product " + product.getName()
+                        + ". Available: " + product.getQuantity() + ", Requested: " + products.get(id));
+            }
+        });
+        // Inserted before any stock moves: a concurrent request for the same id waits on this row, then fails
+        StockReservation reservation = stockReservationRepository.saveAndFlush(StockReservation.builder()
+                .id(reservationId)
+                .status(StockReservation.Status.RESERVED)
+                .createdAt(Instant.now())
+                .build());
+        reserveHotLines(products);
+
+        List<ReservedProductDTO> reserved = new ArrayList<>();
+        products.forEach((id, quantity) -> {
+            eventPublisher.publishEvent(new ProductChangedEvent(id, ProductChangeType.STOCK_CHANGED));
+            Product product = lockedProducts.get(id);
+            if (product == null) {
+                Product hotProduct = productRepository.findById(id)
+                        .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + id));
+                reserved.add(new ReservedProductDTO(id, hotProduct.getName(), hotProduct.getImageUrl(),
+                        quantity, hotProduct.getPrice()));
+                return;
+            }
+            product.setQuantity(product.getQuantity() - quantity);
+            reserved.add(new ReservedProductDTO(id, product.getName(), product.getImageUrl(),
+                    quantity, product.getPrice()));
+        });
+        reserved.forEach(line -> reservation.getLines().add(new StockReservationLine(line.productId(),
+                line.name(), line.imageUrl(), line.quantity(), line.unitPrice())));
+        return reserved;
+    }
+
+    @Override
+    public void releaseStock(String reservationId) {
+        StockReservation reservation = stockReservationRepository.findByIdForUpdate(reservationId).orElse(null);
+        if (reservation == null) {
+            // Nothing was reserved (yet): remember the release so a late reservation is refused
+            stockReservationRepository.saveAndFlush(StockReservation.builder()
+                    .id(reservationId)
+                    .status(StockReservation.Status.RELEASED)
+                    .createdAt(Instant.now())
+                    .build());
+            return;
+        }
+        if (reservation.getStatus() == StockReservation.Status.RELEASED) {
+            return;
+        }
+
+        List<StockReservationLine> lines = List.copyOf(reservation.getLines());
+        reservation.setStatus(StockReservation.Status.RELEASED);
+        stockReservationRepository.flush();
+
+        Map<String, Integer> hotLines = new HashMap<>();
+        lines.forEach(line -> {
+            if (hotStockManager.isHot(line.getProductId())) {
+                hotLines.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+            } else {
+                productRepository.increaseStock(line.getProductId(), line.getQuantity());
+            }
+            eventPublisher.publishEvent(new ProductChangedEvent(line.getProductId(), ProductChangeType.STOCK_CHANGED));
+        });
+
+        if (!hotLines.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    hotLines.forEach(hotStockManager::release);
+                }
+            });
+        }
+    }
+
+    private List<ReservedProductDTO> replayReservation(StockReservation reservation) {
+        if (reservation.getStatus() == StockReservation.Status.RELEASED) {
+            throw new ConflictException("Reservation " + reservation.getId() + " has already been released");
+        }
+        return reservation.getLines().stream()
+                .map(line -> new ReservedProductDTO(line.getProductId(), line.getProductName(), line.getImageUrl(),
+                        line.getQuantity(), line.getUnitPrice()))
+                .collect(Collectors.toList());
+    }
+
+    private ProductResponseDTO decreaseHotStock(String id, int quantity) {
+        Map<String, Integer> hotLines = new HashMap<>();
+        if (!takeHotStock(id, quantity, hotLines)) {
+            throw new IllegalArgumentException("Insufficient stock. Available: "
+                    + hotStockManager.availableQuantity(id) + ", Requested: " + quantity);
+        }
+        releaseOnRollback(hotLines);
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + id));
+        eventPublisher.publishEvent(new ProductChangedEvent(id, ProductChangeType.STOCK_CHANGED));
+        return toResponse(product);
+    }
+
+    private void reserveHotLines(Map<String, Integer> products) {
+        Map<String, Integer> hotLines = new HashMap<>();
+        products.forEach((id, quantity) -> {
+            if (!hotStockManager.isHot(id)) {
+                return;
+            }
+            if (!takeHotStock(id, quantity, hotLines)) {
+                hotLines.forEach(hotStockManager::release);
+                throw new IllegalArgumentException("Insufficient stock for product " + id
+                        + ". Available: " + hotStockManager.availableQuantity(id) + ", Requested: " + quantity);
+            }
+        });
+        releaseOnRollback(hotLines);
+    }
+
+    // From the lease, or from the row in this transaction when the lease is short: requests never claim leases.
+    // Only units taken from memory are recorded in hotLines, the row ones roll back with the transaction
+    private boolean takeHotStock(String id, int quantity, Map<String, Integer> hotLines) {
+        if (hotStockManager.tryReserve(id, quantity)) {
+            hotLines.merge(id, quantity, Integer::sum);
+            return true;
+        }
+        return productRepository.decreaseUnleasedStockIfAvailable(id, quantity) > 0;
+    }
+
+    // Hot units are taken from memory, so they are handed back by hand if the transaction rolls back
+    private void releaseOnRollback(Map<String, Integer> hotLines) {
+        if (!hotLines.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        hotLines.forEach(hotStockManager::release);
+                    }
+                }
+            });
+        }
+    }
+
+    private ProductSummaryDTO withLiveStock(ProductSummaryDTO summary) {
+        if (!hotStockManager.isHot(summary.id())) {
+            return summary;
+        }
+        return new ProductSummaryDTO(summary.id(), summary.name(), summary.price(),
+                hotStockManager.availableQuantity(summary.id()), summary.imageUrl(), summary.version());
+    }
+
+    private ProductResponseDTO toResponse(Product product) {
+        if (hotStockManager.isHot(product.getId())) {
+            return productMapper.fromEntity(product, hotStockManager.availableQuantity(product.getId()));
+        }
+        return productMapper.fromEntity(product);
     }
 }
\ No newline at end of file
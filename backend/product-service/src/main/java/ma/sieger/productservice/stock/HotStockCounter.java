@@ -0,0 +1,75 @@
+package ma.sieger.productservice.stock;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Striped stock counter for a single hot product.
+ * Each stripe sits on its own cache line so concurrent buyers rarely contend on the same CAS,
+ * and a decrement never lets a stripe go below zero.
+ */
+class HotStockCounter {
+
+    // 16 longs = 128 bytes between two stripes, enough to avoid false sharing on common CPUs
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    HotStockCounter(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.cells = new AtomicLongArray(size * PADDING);
+        this.mask = size - 1;
+    }
+
+    boolean tryAcquire(long quantity) {
+        int home = homeStripe();
+        for (int i = 0; i <= mask; i++) {
+            int index = ((home + i) & mask) * PADDING;
+            long current = cells.get(index);
+            while (current >= quantity) {
+                if (cells.compareAndSet(index, current, current - quantity)) {
+                    return true;
+                }
+                current = cells.get(index);
+            }
+        }
+        return false;
+    }
+
+    // Slow path for when units are spread over several stripes: pool them and retry once
+    synchronized boolean tryAcquireConsolidated(long quantity) {
+        long pooled = drain();
+        if (pooled >= quantity) {
+            add(pooled - quantity);
+            return true;
+        }
+        add(pooled);
+        return false;
+    }
+
+    void add(long quantity) {
+        if (quantity > 0) {
+            cells.getAndAdd(homeStripe() * PADDING, quantity);
+        }
+    }
+
+    long drain() {
+        long total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += cells.getAndSet(i * PADDING, 0);
+        }
+        return total;
+    }
+
+    long available() {
+        long total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += cells.get(i * PADDING);
+        }
+        return total;
+    }
+
+    private int homeStripe() {
+        return (int) Thread.currentThread().threadId() & mask;
+    }
+}
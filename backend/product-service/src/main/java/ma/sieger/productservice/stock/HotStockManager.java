@@ -0,0 +1,223 @@
+package ma.sieger.productservice.stock;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ma.sieger.productservice.entities.Product;
+import ma.sieger.productservice.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Opt-in "hot SKU" mode for flash sales.
+ * <p>
+ * Stock of flagged products is leased from the database in chunks: the lease is subtracted from
+ * the {@code product} row in its own committed transaction before any unit is sold from memory.
+ * Buyers then reserve against the in-memory counter without touching the row, and a background
+ * flusher tops the lease up early or hands the surplus back. Leases are only ever claimed by the
+ * flusher: a request that finds the lease short takes its units from the row in its own transaction
+ * instead, so it never needs a second connection or waits behind another one.
+ * A crash can only lose unsold leased units (the database under-counts), it can never make the same
+ * unit sellable twice.
+ */
+@Component
+@Slf4j
+public class HotStockManager {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate leaseTransaction;
+    private final Map<String, HotSku> hotSkus = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+    private final List<String> productIds;
+    private final int leaseSize;
+
+    public HotStockManager(ProductRepository productRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${product.hot-stock.enabled:false}") boolean enabled,
+                           @Value("${product.hot-stock.product-ids:}") List<String> productIds,
+                           @Value("${product.hot-stock.lease-size:100}") int leaseSize) {
+        this.productRepository = productRepository;
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.productIds = productIds;
+        this.leaseSize = leaseSize;
+    }
+
+    // Nothing survives a restart: every hot SKU starts again from what the database says is left
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        productIds.stream().filter(id -> !id.isBlank()).forEach(id -> {
+            productRepository.findById(id).ifPresentOrElse(product -> {
+                HotSku hotSku = new HotSku(new HotStockCounter(Runtime.getRuntime().availableProcessors()));
+                hotSku.databaseQuantity = product.getQuantity();
+                hotSkus.put(id, hotSku);
+                claimLease(id, hotSku, leaseSize);
+                log.info("Hot stock enabled for product {} with {} units leased", id, hotSku.counter.available());
+            }, () -> log.warn("Hot stock requested for unknown product {}", id));
+        });
+    }
+
+    public boolean isHot(String productId) {
+        return hotSkus.containsKey(productId);
+    }
+
+    // Memory only: false when the lease is short or the product left hot mode, the caller then falls back on the row
+    public boolean tryReserve(String productId, int quantity) {
+        HotSku hotSku = hotSkus.get(productId);
+        if (hotSku == null) {
+            return false;
+        }
+        return hotSku.counter.tryAcquire(quantity) || hotSku.counter.tryAcquireConsolidated(quantity);
+    }
+
+    public void release(String productId, int quantity) {
+        HotSku hotSku = hotSkus.get(productId);
+        if (hotSku != null) {
+            hotSku.counter.add(quantity);
+        }
+    }
+
+    // Units held in memory, on top of what the product row says
+    public long leasedQuantity(String productId) {
+        HotSku hotSku = hotSkus.get(productId);
+        return hotSku == null ? 0 : hotSku.counter.available();
+    }
+
+    public int availableQuantity(String productId) {
+        HotSku hotSku = hotSkus.get(productId);
+        return hotSku == null ? 0 : (int) (hotSku.databaseQuantity + hotSku.counter.available());
+    }
+
+    // Hot products that can still be sold, whatever their row says once the lease is taken out of it
+    public Set<String> inStockIds() {
+        return hotSkus.keySet().stream()
+                .filter(productId -> availableQuantity(productId) > 0)
+                .collect(Collectors.toSet());
+    }
+
+    // An admin update sets an absolute quantity: once it commits the lease is dropped and the new row becomes the truth.
+    // Until then the flusher leaves the lease alone, and a rolled back update changes nothing
+    public void onProductUpdated(Product product) {
+        HotSku hotSku = hotSkus.get(product.getId());
+        if (hotSku == null) {
+            return;
+        }
+        hotSku.pendingUpdates.incrementAndGet();
+        afterCompletion(committed -> {
+            if (committed) {
+                hotSku.counter.drain();
+                hotSku.databaseQuantity = product.getQuantity();
+            }
+            hotSku.pendingUpdates.decrementAndGet();
+        });
+    }
+
+    public void onProductDeleted(String productId) {
+        afterCompletion(committed -> {
+            HotSku hotSku = committed ? hotSkus.remove(productId) : null;
+            if (hotSku != null) {
+                hotSku.counter.drain();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${product.hot-stock.flush-interval-ms:200}")
+    public void flush() {
+        hotSkus.forEach((productId, hotSku) -> {
+            synchronized (hotSku) {
+                if (hotSku.pendingUpdates.get() > 0) {
+                    return;
+                }
+                long available = hotSku.counter.available();
+                if (available < leaseSize) {
+                    claimLease(productId, hotSku, leaseSize);
+                } else if (available > 2L * leaseSize) {
+                    returnLease(productId, hotSku, available - leaseSize);
+                } else {
+                    // Requests that found the lease short took their units from the row
+                    hotSku.databaseQuantity = productRepository.findQuantityById(productId).orElse(0);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void returnAllLeases() {
+        hotSkus.forEach((productId, hotSku) -> {
+            synchronized (hotSku) {
+                returnLease(productId, hotSku, hotSku.counter.available());
+            }
+        });
+    }
+
+    private void claimLease(String productId, HotSku hotSku, int wanted) {
+        Integer claimed = leaseTransaction.execute(status -> {
+            int databaseQuantity = productRepository.findQuantityById(productId).orElse(0);
+            int amount = Math.min(databaseQuantity, wanted);
+            if (amount <= 0 || productRepository.decreaseStockIfAvailable(productId, amount) == 0) {
+                hotSku.databaseQuantity = databaseQuantity;
+                return 0;
+            }
+            hotSku.databaseQuantity = databaseQuantity - amount;
+            return amount;
+        });
+        // Only credit memory once the database side has committed
+        hotSku.counter.add(claimed == null ? 0 : claimed);
+    }
+
+    private void returnLease(String productId, HotSku hotSku, long surplus) {
+        if (surplus <= 0 || !hotSku.counter.tryAcquireConsolidated(surplus)) {
+            return;
+        }
+        try {
+            leaseTransaction.executeWithoutResult(status -> productRepository.increaseStock(productId, (int) surplus));
+            hotSku.databaseQuantity += surplus;
+        } catch (RuntimeException e) {
+            hotSku.counter.add(surplus);
+            log.warn("Could not return {} leased units of product {}", surplus, productId, e);
+        }
+    }
+
+    private static void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private static final class HotSku {
+        private final HotStockCounter counter;
+        private final AtomicInteger pendingUpdates = new AtomicInteger();
+        private volatile long databaseQuantity;
+
+        private HotSku(HotStockCounter counter) {
+            this.counter = counter;
+        }
+    }
+}
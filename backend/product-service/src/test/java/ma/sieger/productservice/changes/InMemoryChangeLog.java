@@ -0,0 +1,117 @@
+package ma.sieger.productservice.changes;
+
+import ma.sieger.productservice.entities.ProductChange;
+import ma.sieger.productservice.entities.ProductChangeLogHead;
+import ma.sieger.productservice.events.ProductChangeType;
+import ma.sieger.productservice.repository.ProductChangeLogHeadRepository;
+import ma.sieger.productservice.repository.ProductChangeRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The product_changes table and its head row, behind the repository methods the change feed uses.
+ * Every call is recorded in {@link #calls}, so tests can check what ran inside the sequencing transaction.
+ */
+class InMemoryChangeLog {
+
+    final List<String> calls = new ArrayList<>();
+    private final List<ProductChange> changes = new ArrayList<>();
+    private ProductChangeLogHead head;
+    private long ids;
+
+    synchronized void record(String productId, ProductChangeType type, Instant occurredAt) {
+        changes.add(new ProductChange(++ids, null, productId, type, occurredAt));
+    }
+
+    // Another instance sequencing changes: only the shared head row moves
+    synchronized void advanceHeadElsewhere(long version) {
+        head = new ProductChangeLogHead(ProductChangeLogHead.ID, version);
+    }
+
+    synchronized List<ProductChange> sequenced() {
+        return changes.stream()
+                .filter(change -> change.getVersion() != null)
+                .sorted(Comparator.comparing(ProductChange::getVersion))
+                .toList();
+    }
+
+    ProductChangeRepository changeRepository() {
+        return (ProductChangeRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ProductChangeRepository.class}, (proxy, method, args) -> {
+                    synchronized (this) {
+                        calls.add(method.getName());
+                        return switch (method.getName()) {
+                            case "existsByVersionIsNull" -> changes.stream().anyMatch(change -> change.getVersion() == null);
+                            case "findByVersionIsNullOrderById" -> changes.stream()
+                                    .filter(change -> change.getVersion() == null)
+                                    .limit(((Limit) args[0]).max())
+                                    .toList();
+                            case "findByVersionGreaterThanOrderByVersion" -> sequenced().stream()
+                                    .filter(change -> change.getVersion() > (long) args[0])
+                                    .limit(((Limit) args[1]).max())
+                                    .toList();
+                            case "deleteSupersededBefore" -> deleteSupersededBefore((Instant) args[0]);
+                            default -> throw new UnsupportedOperationException(method.getName());
+                        };
+                    }
+                });
+    }
+
+    ProductChangeLogHeadRepository headRepository() {
+        return (ProductChangeLogHeadRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ProductChangeLogHeadRepository.class}, (proxy, method, args) -> {
+                    synchronized (this) {
+                        calls.add(method.getName());
+                        return switch (method.getName()) {
+                            case "findById", "findByIdForUpdate" -> Optional.ofNullable(head);
+                            case "saveAndFlush" -> {
+                                head = (ProductChangeLogHead) args[0];
+                                yield head;
+                            }
+                            default -> throw new UnsupportedOperationException(method.getName());
+                        };
+                    }
+                });
+    }
+
+    PlatformTransactionManager transactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                calls.add("begin");
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+                calls.add("commit");
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+                calls.add("rollback");
+            }
+        };
+    }
+
+    // Same rule as the JPQL delete: sequenced, older than the cut-off, and a later version exists for the product
+    private int deleteSupersededBefore(Instant before) {
+        List<ProductChange> superseded = changes.stream()
+                .filter(change -> change.getVersion() != null && change.getOccurredAt().isBefore(before))
+                .filter(change -> changes.stream().anyMatch(later -> later.getProductId().equals(change.getProductId())
+                        && later.getVersion() != null && later.getVersion() > change.getVersion()))
+                .toList();
+        changes.removeAll(superseded);
+        return superseded.size();
+    }
+}
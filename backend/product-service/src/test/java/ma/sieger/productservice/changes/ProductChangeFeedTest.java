@@ -0,0 +1,112 @@
+package ma.sieger.productservice.changes;
+
+import ma.sieger.productservice.dtos.ProductChangeDTO;
+import ma.sieger.productservice.dtos.ProductChangesDTO;
+import ma.sieger.productservice.entities.ProductChange;
+import ma.sieger.productservice.events.ProductChangeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductChangeFeedTest {
+
+    private static final Duration COMPACTION_LAG = Duration.ofHours(1);
+
+    private final InMemoryChangeLog log = new InMemoryChangeLog();
+    private final ProductChangeSequencer sequencer = new ProductChangeSequencer(log.changeRepository(),
+            log.headRepository(), log.transactionManager(), 1000);
+    // Snapshots are not exercised here, so neither products nor hot stock are needed
+    private final ProductChangeFeed feed = new ProductChangeFeed(log.changeRepository(), null, sequencer, null, null,
+            COMPACTION_LAG, Duration.ofSeconds(25));
+
+    @Test
+    void changesAreReadInVersionOrderFromWhereTheConsumerStopped() throws InterruptedException {
+        record(ProductChangeType.CREATED, "p1", "p2", "p3");
+        sequencer.sequence();
+
+        ProductChangesDTO first = feed.changesSince(0, 2, Duration.ZERO);
+        assertEquals(List.of(1L, 2L), first.changes().stream().map(ProductChangeDTO::version).toList());
+        assertEquals(2, first.version());
+
+        ProductChangesDTO rest = feed.changesSince(first.version(), 2, Duration.ZERO);
+        assertEquals(List.of("p3"), rest.changes().stream().map(ProductChangeDTO::productId).toList());
+
+        // Caught up: no change, the consumer resumes from the same position
+        ProductChangesDTO none = feed.changesSince(rest.version(), 2, Duration.ZERO);
+        assertTrue(none.changes().isEmpty());
+        assertEquals(3, none.version());
+    }
+
+    @Test
+    void versionAheadOfTheLogIsRejectedUnlessAnotherInstanceHandedItOut() throws InterruptedException {
+        record(ProductChangeType.CREATED, "p1");
+        sequencer.sequence();
+
+        assertThrows(IllegalArgumentException.class, () -> feed.changesSince(5, 10, Duration.ZERO));
+
+        // Sequenced elsewhere, this instance's last run has not seen it yet
+        log.advanceHeadElsewhere(5);
+        assertTrue(feed.changesSince(5, 10, Duration.ZERO).changes().isEmpty());
+    }
+
+    @Test
+    void longPollReturnsAsSoonAsAChangeIsSequenced() throws Exception {
+        record(ProductChangeType.CREATED, "p1");
+        sequencer.sequence();
+
+        CompletableFuture<ProductChangesDTO> poll = feed.pollChanges(1, 10, Duration.ofSeconds(10));
+        Thread.sleep(100);
+        assertFalse(poll.isDone());
+
+        record(ProductChangeType.UPDATED, "p1");
+        sequencer.sequence();
+        ProductChangesDTO changes = poll.get(2, TimeUnit.SECONDS);
+        assertEquals(List.of(2L), changes.changes().stream().map(ProductChangeDTO::version).toList());
+        feed.shutdown();
+    }
+
+    @Test
+    void compactionKeepsTheLatestChangeOfEveryProductDeletionsIncluded() throws InterruptedException {
+        Instant old = Instant.now().minus(COMPACTION_LAG).minusSeconds(60);
+        log.record("p1", ProductChangeType.CREATED, old);
+        log.record("p2", ProductChangeType.CREATED, old);
+        log.record("p1", ProductChangeType.UPDATED, old);
+        log.record("p2", ProductChangeType.DELETED, old);
+        log.record("p3", ProductChangeType.CREATED, old);
+        // Recent: still within the lag, kept even though a later change of p3 follows
+        record(ProductChangeType.UPDATED, "p3", "p3");
+        sequencer.sequence();
+
+        feed.compact();
+
+        Map<String, ProductChangeType> latest = latestByProduct(feed.changesSince(0, 100, Duration.ZERO));
+        assertEquals(Map.of("p1", ProductChangeType.UPDATED, "p2", ProductChangeType.DELETED,
+                "p3", ProductChangeType.UPDATED), latest);
+        assertEquals(List.of(3L, 4L, 6L, 7L), log.sequenced().stream().map(ProductChange::getVersion).toList());
+
+        // A consumer that had stopped in the middle of the removed versions still converges on the same state
+        assertEquals(latest, latestByProduct(feed.changesSince(1, 100, Duration.ZERO)));
+    }
+
+    private static Map<String, ProductChangeType> latestByProduct(ProductChangesDTO changes) {
+        return changes.changes().stream()
+                .collect(Collectors.toMap(ProductChangeDTO::productId, ProductChangeDTO::type, (first, second) -> second));
+    }
+
+    private void record(ProductChangeType type, String... productIds) {
+        for (String productId : productIds) {
+            log.record(productId, type, Instant.now());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ma.sieger.productservice.changes;
+
+import ma.sieger.productservice.entities.ProductChange;
+import ma.sieger.productservice.events.ProductChangeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductChangeSequencerTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    private final InMemoryChangeLog log = new InMemoryChangeLog();
+    private final ProductChangeSequencer sequencer = new ProductChangeSequencer(log.changeRepository(),
+            log.headRepository(), log.transactionManager(), BATCH_SIZE);
+
+    @Test
+    void versionsFollowInsertionOrderAndAreHandedOutUnderTheHeadLock() {
+        record("p1", "p2", "p3", "p1", "p4");
+
+        sequencer.sequence();
+
+        List<ProductChange> sequenced = log.sequenced();
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sequenced.stream().map(ProductChange::getVersion).toList());
+        assertEquals(List.of("p1", "p2", "p3", "p1", "p4"), sequenced.stream().map(ProductChange::getProductId).toList());
+        assertEquals(5, sequencer.head());
+
+        // Three batches of at most two: the pending rows are always read after the head row is locked
+        List<String> firstBatch = log.calls.subList(log.calls.indexOf("begin"), log.calls.indexOf("commit") + 1);
+        assertEquals(List.of("begin", "findByIdForUpdate", "saveAndFlush", "findByVersionIsNullOrderById", "commit"),
+                firstBatch);
+        assertEquals(3, log.calls.stream().filter("begin"::equals).count());
+    }
+
+    @Test
+    void laterChangesContinueFromTheHead() {
+        record("p1", "p2");
+        sequencer.sequence();
+
+        record("p3");
+        sequencer.sequence();
+
+        assertEquals(3L, log.sequenced().getLast().getVersion());
+        assertEquals(3, sequencer.head());
+    }
+
+    @Test
+    void headFollowsVersionsSequencedByAnotherInstance() {
+        assertEquals(0, sequencer.head());
+
+        log.advanceHeadElsewhere(7);
+        assertEquals(0, sequencer.head());
+        assertEquals(7, sequencer.refreshHead());
+
+        // Nothing pending here: a run still reads the shared head
+        log.advanceHeadElsewhere(9);
+        sequencer.sequence();
+        assertEquals(9, sequencer.head());
+    }
+
+    @Test
+    void waitersWakeUpOnceANewVersionIsVisible() throws Exception {
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> {
+            try {
+                sequencer.awaitVersionAfter(0, Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(waiter.isDone());
+
+        record("p1");
+        sequencer.sequence();
+        waiter.get(2, TimeUnit.SECONDS);
+        assertEquals(1, sequencer.head());
+    }
+
+    @Test
+    void waitEndsAtTheTimeoutWhenNothingChanges() throws InterruptedException {
+        long start = System.nanoTime();
+        sequencer.awaitVersionAfter(0, Duration.ofMillis(100));
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(0, sequencer.head());
+    }
+
+    private void record(String... productIds) {
+        for (String productId : productIds) {
+            log.record(productId, ProductChangeType.UPDATED, Instant.now());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package ma.sieger.productservice.grpc;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Validation;
+import ma.sieger.productservice.dtos.ProductPageDTO;
+import ma.sieger.productservice.dtos.ProductRequestDTO;
+import ma.sieger.productservice.dtos.ProductResponseDTO;
+import ma.sieger.productservice.dtos.ReservedProductDTO;
+import ma.sieger.productservice.events.ProductChangeType;
+import ma.sieger.productservice.events.ProductEventLog;
+import ma.sieger.productservice.grpc.proto.GetProductRequest;
+import ma.sieger.productservice.grpc.proto.ProductCatalogGrpc;
+import ma.sieger.productservice.grpc.proto.ProductChanges;
+import ma.sieger.productservice.grpc.proto.ReleaseStockRequest;
+import ma.sieger.productservice.grpc.proto.WatchProductChangesRequest;
+import ma.sieger.productservice.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductGrpcServiceTest {
+
+    private final ProductEventLog eventLog = new ProductEventLog(100);
+    private Server server;
+    private ManagedChannel channel;
+    private ProductCatalogGrpc.ProductCatalogBlockingStub stub;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        ProductGrpcService service = new ProductGrpcService(new CatalogOfOne(), eventLog,
+                Validation.buildDefaultValidatorFactory().getValidator(), Duration.ofMillis(200));
+        GrpcAuthenticationInterceptor authentication = new GrpcAuthenticationInterceptor(token -> {
+            throw new BadJwtException("Not a token");
+        }, new JwtAuthenticationConverter());
+        String name = InProcessServerBuilder.generateName();
+        // Not a direct executor: the change stream blocks the thread it runs on
+        server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(service, authentication)).build().start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        stub = ProductCatalogGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void stopServer() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void mapsProductsAndErrorsLikeTheRestApi() {
+        ma.sieger.productservice.grpc.proto.Product product =
+                stub.getProduct(GetProductRequest.newBuilder().setId("p1").build());
+        assertEquals("Clavier", product.getName());
+        assertEquals(3, product.getVersion());
+        assertFalse(product.hasImageUrl());
+
+        StatusRuntimeException notFound = assertThrows(StatusRuntimeException.class,
+                () -> stub.getProduct(GetProductRequest.newBuilder().setId("p2").build()));
+        assertEquals(Status.Code.NOT_FOUND, notFound.getStatus().getCode());
+
+        StatusRuntimeException anonymous = assertThrows(StatusRuntimeException.class,
+                () -> stub.releaseStock(ReleaseStockRequest.newBuilder().setReservationId("r1").build()));
+        assertEquals(Status.Code.UNAUTHENTICATED, anonymous.getStatus().getCode());
+    }
+
+    @Test
+    void streamsChangesAsTheyAreLogged() throws InterruptedException {
+        eventLog.append("p1", ProductChangeType.UPDATED);
+        Iterator<ProductChanges> changes = stub.withDeadlineAfter(5, TimeUnit.SECONDS)
+                .watchProductChanges(WatchProductChangesRequest.newBuilder().setAfterSequence(0).build());
+
+        ProductChanges first = changes.next();
+        assertEquals(1, first.getChangesCount());
+
+        Thread writer = Thread.ofVirtual().start(() -> eventLog.append("p2", ProductChangeType.DELETED));
+        ProductChanges next = changes.next();
+        writer.join();
+        assertEquals(first.getInstanceId(), next.getInstanceId());
+        assertEquals(2, next.getLatestSequence());
+        assertEquals("p2", next.getChanges(0).getProductId());
+        assertEquals("DELETED", next.getChanges(0).getType());
+    }
+
+    private static final class CatalogOfOne implements ProductService {
+
+        @Override
+        public ProductResponseDTO getProductById(String id) {
+            if (!"p1".equals(id)) {
+                throw new EntityNotFoundException("Product not found with id: " + id);
+            }
+            return new ProductResponseDTO("p1", "Clavier", null, 49.9, 12, null, 3, Instant.EPOCH);
+        }
+
+        @Override
+        public List<ProductResponseDTO> getProductsByIds(Collection<String> ids) {
+            return ids.contains("p1") ? List.of(getProductById("p1")) : List.of();
+        }
+
+        @Override
+        public ProductResponseDTO createProduct(ProductRequestDTO productRequestDTO) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ProductPageDTO getProducts(Double minPrice, Double maxPrice, boolean inStock, String namePrefix,
+                                          Pageable pageable) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ProductResponseDTO updateProduct(String id, ProductRequestDTO productRequestDTO) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void deleteProduct(String id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ProductResponseDTO decreaseStock(String id, int quantity) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<ReservedProductDTO> reserveStock(String reservationId, Map<String, Integer> products) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void releaseStock(String reservationId) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
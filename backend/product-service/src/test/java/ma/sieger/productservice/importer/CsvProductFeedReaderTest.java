@@ -0,0 +1,59 @@
+package ma.sieger.productservice.importer;
+
+import ma.sieger.productservice.dtos.ProductRequestDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvProductFeedReaderTest {
+
+    @Test
+    void readsQuotedFieldsAcrossLinesAndReportsTheirStartLine() throws IOException {
+        CsvProductFeedReader reader = new CsvProductFeedReader(new StringReader(
+                "Price,Name,image_url,Description\r\n" +
+                "19.9,\"Câble \"\"HDMI\"\"\",,\"Deux mètres,\nplaqué or\"\r\n" +
+                "\n" +
+                "abc,Clavier,,\n" +
+                "5,Souris,http://img/souris.png"));
+
+        ProductFeedRow cable = reader.next();
+        assertEquals(2, cable.line());
+        assertEquals(new ProductRequestDTO("Câble \"HDMI\"", "Deux mètres,\nplaqué or", 19.9, 0, null), cable.product());
+        assertFalse(cable.hasQuantity());
+
+        ProductFeedRow keyboard = reader.next();
+        assertEquals(5, keyboard.line());
+        assertEquals("Invalid price: abc", keyboard.error());
+
+        ProductFeedRow mouse = reader.next();
+        assertEquals(6, mouse.line());
+        assertEquals("http://img/souris.png", mouse.product().imageUrl());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void blankQuantityIsLeftOutRatherThanReadAsZero() throws IOException {
+        CsvProductFeedReader reader = new CsvProductFeedReader(new StringReader(
+                "name,price,quantity\n" +
+                "Clavier,49.9,\n" +
+                "Souris,19.9,0\n"));
+
+        assertFalse(reader.next().hasQuantity());
+        ProductFeedRow mouse = reader.next();
+        assertTrue(mouse.hasQuantity());
+        assertEquals(0, mouse.product().quantity());
+    }
+
+    @Test
+    void requiresNameAndPriceColumns() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CsvProductFeedReader(new StringReader("name,quantity\nClavier,3\n")));
+    }
+}
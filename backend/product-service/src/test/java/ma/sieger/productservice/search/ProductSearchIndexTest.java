@@ -0,0 +1,45 @@
+package ma.sieger.productservice.search;
+
+import ma.sieger.productservice.dtos.ProductSearchHitDTO;
+import ma.sieger.productservice.entities.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    @Test
+    void ranksNameMatchesFirstAndCompletesTheLastTerm() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(product("1", "Écran 27 pouces", "Moniteur IPS"));
+        index.index(product("2", "Câble HDMI", "Compatible avec tout écran"));
+        index.index(product("3", "Clavier mécanique", "Switches rouges"));
+
+        List<ProductSearchHitDTO> hits = index.search("ecran", 10);
+        assertEquals(List.of("1", "2"), hits.stream().map(ProductSearchHitDTO::id).toList());
+
+        assertEquals(List.of("3"), index.search("clav", 10).stream().map(ProductSearchHitDTO::id).toList());
+        assertEquals(List.of("cable", "clavier", "compatible"), index.complete("C", 10));
+    }
+
+    @Test
+    void reindexingAndRemovalDropStaleTerms() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(product("1", "Souris sans fil", null));
+        index.index(product("1", "Souris filaire", null));
+
+        assertTrue(index.search("sans", 10).isEmpty());
+        assertEquals(1, index.search("filaire", 10).size());
+
+        index.remove("1");
+        assertTrue(index.search("souris", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    private static Product product(String id, String name, String description) {
+        return Product.builder().id(id).name(name).description(description).price(10).quantity(1).build();
+    }
+}
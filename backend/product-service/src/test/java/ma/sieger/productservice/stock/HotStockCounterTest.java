@@ -0,0 +1,75 @@
+package ma.sieger.productservice.stock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotStockCounterTest {
+
+    @Test
+    void unitsSpreadOverStripesAreOnlyReachableOnceConsolidated() throws Exception {
+        HotStockCounter counter = new HotStockCounter(4);
+        // Added from several threads, so usually spread over several stripes
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> counter.add(1));
+            thread.start();
+            thread.join();
+        }
+
+        assertEquals(4, counter.available());
+        assertFalse(counter.tryAcquireConsolidated(5));
+        assertEquals(4, counter.available());
+        assertTrue(counter.tryAcquireConsolidated(3));
+        assertEquals(1, counter.available());
+        assertEquals(1, counter.drain());
+        assertFalse(counter.tryAcquire(1));
+    }
+
+    @Test
+    void concurrentBuyersNeverSellMoreThanWasAdded() throws Exception {
+        HotStockCounter counter = new HotStockCounter(8);
+        counter.add(10_000);
+        AtomicLong sold = new AtomicLong();
+        AtomicLong released = new AtomicLong();
+
+        try (ExecutorService buyers = Executors.newFixedThreadPool(16)) {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int buyer = 0; buyer < 16; buyer++) {
+                runs.add(buyers.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 5_000; i++) {
+                        int quantity = random.nextInt(1, 4);
+                        if (counter.tryAcquire(quantity) || counter.tryAcquireConsolidated(quantity)) {
+                            sold.addAndGet(quantity);
+                            // Some orders are cancelled and hand their units back
+                            if (random.nextInt(4) == 0) {
+                                counter.add(quantity);
+                                released.addAndGet(quantity);
+                            }
+                        }
+                        assertTrue(counter.available() >= 0);
+                    }
+                }));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        }
+
+        long kept = sold.get() - released.get();
+        assertTrue(kept <= 10_000);
+        assertEquals(10_000 - kept, counter.available());
+        assertEquals(10_000 - kept, counter.drain());
+        assertEquals(0, counter.available());
+    }
+}
@@ -0,0 +1,159 @@
+package ma.sieger.productservice.stock;
+
+import ma.sieger.productservice.entities.Product;
+import ma.sieger.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotStockManagerTest {
+
+    private static final String PRODUCT_ID = "hot-1";
+    private static final int LEASE_SIZE = 100;
+
+    private final AtomicInteger row = new AtomicInteger(1000);
+    private final AtomicInteger leaseTransactions = new AtomicInteger();
+    private final HotStockManager manager = new HotStockManager(productRepository(), transactionManager(),
+            true, List.of(PRODUCT_ID), LEASE_SIZE);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void leasedUnitsAreTakenFromTheRowAndToppedUpByTheFlusherOnly() {
+        manager.start();
+        assertEquals(900, row.get());
+        assertEquals(LEASE_SIZE, manager.leasedQuantity(PRODUCT_ID));
+        assertEquals(1000, manager.availableQuantity(PRODUCT_ID));
+
+        assertTrue(manager.tryReserve(PRODUCT_ID, 60));
+        int transactions = leaseTransactions.get();
+        // A request finding the lease short is refused from memory, it never claims a lease itself
+        assertFalse(manager.tryReserve(PRODUCT_ID, 50));
+        assertEquals(transactions, leaseTransactions.get());
+        assertEquals(900, row.get());
+
+        manager.flush();
+        assertEquals(800, row.get());
+        assertEquals(140, manager.leasedQuantity(PRODUCT_ID));
+        assertEquals(940, manager.availableQuantity(PRODUCT_ID));
+    }
+
+    @Test
+    void surplusIsHandedBackAndNothingIsLostOnShutdown() {
+        manager.start();
+        manager.release(PRODUCT_ID, 250);
+
+        manager.flush();
+        assertEquals(LEASE_SIZE, manager.leasedQuantity(PRODUCT_ID));
+        assertEquals(1150, row.get());
+
+        assertTrue(manager.tryReserve(PRODUCT_ID, 30));
+        manager.returnAllLeases();
+        assertEquals(0, manager.leasedQuantity(PRODUCT_ID));
+        assertEquals(1220, row.get());
+    }
+
+    @Test
+    void leaseIsOnlyDroppedOnceAnAdminUpdateCommits() {
+        manager.start();
+
+        TransactionSynchronizationManager.initSynchronization();
+        manager.onProductUpdated(product(500));
+        // The flusher leaves the lease alone while the update is in flight
+        manager.tryReserve(PRODUCT_ID, 80);
+        manager.flush();
+        assertEquals(900, row.get());
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(20, manager.leasedQuantity(PRODUCT_ID));
+        assertEquals(920, manager.availableQuantity(PRODUCT_ID));
+
+        TransactionSynchronizationManager.initSynchronization();
+        manager.onProductUpdated(product(500));
+        row.set(500);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(0, manager.leasedQuantity(PRODUCT_ID));
+        assertEquals(500, manager.availableQuantity(PRODUCT_ID));
+
+        manager.flush();
+        assertEquals(400, row.get());
+        assertEquals(LEASE_SIZE, manager.leasedQuantity(PRODUCT_ID));
+    }
+
+    @Test
+    void productIsInStockWhileItsLeaseLasts() {
+        row.set(LEASE_SIZE);
+        manager.start();
+        assertEquals(0, row.get());
+        assertEquals(Set.of(PRODUCT_ID), manager.inStockIds());
+
+        assertTrue(manager.tryReserve(PRODUCT_ID, LEASE_SIZE));
+        assertEquals(Set.of(), manager.inStockIds());
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static Product product(int quantity) {
+        return Product.builder().id(PRODUCT_ID).name("Console").price(499).quantity(quantity).build();
+    }
+
+    // Only the queries the manager runs, against a single product row
+    private ProductRepository productRepository() {
+        return (ProductRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ProductRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.of(product(row.get()));
+                    case "findQuantityById" -> Optional.of(row.get());
+                    case "decreaseStockIfAvailable" -> {
+                        int quantity = (int) args[1];
+                        yield row.getAndUpdate(current -> current >= quantity ? current - quantity : current)
+                                >= quantity ? 1 : 0;
+                    }
+                    case "increaseStock" -> {
+                        row.addAndGet((int) args[1]);
+                        yield 1;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private PlatformTransactionManager transactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                leaseTransactions.incrementAndGet();
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+}
@@ -0,0 +1,147 @@
+package ma.sieger.commons.loadbalancer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * What the load balancer knows about each instance, from the requests this service sent it:
+ * in-flight requests, a peak EWMA of the latency and consecutive failures.
+ * <p>
+ * The EWMA jumps up to a slower response at once and comes down progressively, it also decays toward 0
+ * while the instance gets no traffic, so an instance that was slow is tried again after a while.
+ * An instance that fails (error or 5xx) several times in a row is ejected for the ejection duration.
+ */
+public class InstanceStatsRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(InstanceStatsRegistry.class);
+
+    // Cost of an instance with requests in flight but no latency sample yet, so it is not flooded before the first answer
+    private static final double UNKNOWN_LATENCY_PENALTY = 1e12;
+
+    private final LongSupplier nanoClock;
+    private final double decayNanos;
+    private final int ejectionFailures;
+    private final long ejectionNanos;
+    private final long inFlightTimeoutNanos;
+    private final Cache<String, InstanceStats> stats;
+
+    public InstanceStatsRegistry(Duration decayTime, int ejectionFailures, Duration ejectionDuration,
+                                 Duration inFlightTimeout, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.decayNanos = decayTime.toNanos();
+        this.ejectionFailures = ejectionFailures;
+        this.ejectionNanos = ejectionDuration.toNanos();
+        this.inFlightTimeoutNanos = inFlightTimeout.toNanos();
+        // Instances that left the registry are forgotten once nobody asks about them
+        this.stats = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    public long now() {
+        return nanoClock.getAsLong();
+    }
+
+    public void onStart(ServiceInstance instance) {
+        stats(instance).start(now());
+    }
+
+    public void onComplete(ServiceInstance instance, long latencyNanos, boolean failed) {
+        InstanceStats instanceStats = stats(instance);
+        if (instanceStats.complete(now(), latencyNanos, failed)) {
+            log.warn("Instance {}:{} of {} ejected for {} ms after {} consecutive failures", instance.getHost(),
+                    instance.getPort(), instance.getServiceId(), ejectionNanos / 1_000_000, ejectionFailures);
+        }
+    }
+
+    // Instances that are not ejected, or all of them when every one is: a wrong guess beats no answer
+    public List<ServiceInstance> available(List<ServiceInstance> instances) {
+        long now = now();
+        List<ServiceInstance> available = instances.stream()
+                .filter(instance -> !stats(instance).isEjected(now))
+                .toList();
+        return available.isEmpty() ? instances : available;
+    }
+
+    // Expected wait on this instance: latency times the requests it would have to serve, this one included
+    public double cost(ServiceInstance instance) {
+        return stats(instance).cost(now());
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        String key = instance.getServiceId() + "@" + instance.getHost() + ":" + instance.getPort();
+        return stats.get(key, ignored -> new InstanceStats(now()));
+    }
+
+    private final class InstanceStats {
+        private int inFlight;
+        private double latencyNanos;
+        private long updatedAt;
+        private long lastCompletion;
+        private int consecutiveFailures;
+        private volatile long ejectedUntil;
+
+        private InstanceStats(long now) {
+            this.updatedAt = now;
+            this.lastCompletion = now;
+            this.ejectedUntil = now;
+        }
+
+        private synchronized void start(long now) {
+            // A request never reported back (e.g. cancelled by the caller) must not weigh on the instance forever
+            if (now - lastCompletion > inFlightTimeoutNanos) {
+                inFlight = 0;
+                lastCompletion = now;
+            }
+            inFlight++;
+        }
+
+        // Returns true when this failure ejects the instance
+        private synchronized boolean complete(long now, long sampleNanos, boolean failed) {
+            inFlight = Math.max(inFlight - 1, 0);
+            lastCompletion = now;
+            if (failed) {
+                consecutiveFailures++;
+                if (consecutiveFailures >= ejectionFailures && !isEjected(now)) {
+                    consecutiveFailures = 0;
+                    ejectedUntil = now + ejectionNanos;
+                    return true;
+                }
+                return false;
+            }
+            consecutiveFailures = 0;
+            double weight = weight(now);
+            double current = latencyNanos * weight;
+            latencyNanos = sampleNanos > current ? sampleNanos : current + sampleNanos * (1 - weight);
+            updatedAt = now;
+            return false;
+        }
+
+        private boolean isEjected(long now) {
+            return now - ejectedUntil < 0;
+        }
+
+        private synchronized double cost(long now) {
+            double latency = decayed(now);
+            if (latency == 0) {
+                return inFlight == 0 ? 0 : UNKNOWN_LATENCY_PENALTY + inFlight;
+            }
+            return latency * (inFlight + 1);
+        }
+
+        private double decayed(long now) {
+            return latencyNanos * weight(now);
+        }
+
+        private double weight(long now) {
+            return Math.exp(-Math.max(now - updatedAt, 0) / decayNanos);
+        }
+    }
+}
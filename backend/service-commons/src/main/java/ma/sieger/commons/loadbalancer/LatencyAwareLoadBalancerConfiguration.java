@@ -0,0 +1,38 @@
+package ma.sieger.commons.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load balancer configuration of each client (one child context per service id), replaces the default
+ * round robin. Not a {@code @Configuration}: a service opts in with
+ * {@code @LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)} and
+ * exposes an {@link InstanceStatsRegistry} bean.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+                                                                         LoadBalancerClientFactory clientFactory,
+                                                                         InstanceStatsRegistry registry) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(serviceId,
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                registry, () -> ThreadLocalRandom.current().nextLong());
+    }
+
+    @Bean
+    public LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> instanceStatsLifecycle(
+            InstanceStatsRegistry registry) {
+        return new InstanceStatsLifecycle(registry);
+    }
+}
@@ -0,0 +1,41 @@
+package ma.sieger.commons.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Clock;
+
+/**
+ * Verifies each bearer token once, then answers from a bounded cache until the token's {@code exp}.
+ * <p>
+ * A client sends the same token on every request, and every hop of a call re-checks it: the signature
+ * and claim validation are the expensive part. Tokens that fail validation are never cached, and tokens
+ * without an expiry are not cached either. {@link CachingReactiveJwtDecoder} is the WebFlux counterpart.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final VerifiedJwtCache validatedTokens;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maxSize) {
+        this(delegate, maxSize, Clock.systemUTC());
+    }
+
+    CachingJwtDecoder(JwtDecoder delegate, long maxSize, Clock clock) {
+        this.delegate = delegate;
+        this.validatedTokens = new VerifiedJwtCache(maxSize, clock);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = VerifiedJwtCache.key(token);
+        Jwt cached = validatedTokens.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Jwt jwt = delegate.decode(token);
+        validatedTokens.put(key, jwt);
+        return jwt;
+    }
+}
@@ -0,0 +1,36 @@
+package ma.sieger.commons.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+
+/**
+ * {@link CachingJwtDecoder} for WebFlux: each bearer token is verified once, then served from the same
+ * kind of bounded cache until its {@code exp}.
+ */
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder {
+
+    private final ReactiveJwtDecoder delegate;
+    private final VerifiedJwtCache validatedTokens;
+
+    public CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, long maxSize) {
+        this(delegate, maxSize, Clock.systemUTC());
+    }
+
+    CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, long maxSize, Clock clock) {
+        this.delegate = delegate;
+        this.validatedTokens = new VerifiedJwtCache(maxSize, clock);
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        String key = VerifiedJwtCache.key(token);
+        Jwt cached = validatedTokens.get(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return delegate.decode(token).doOnNext(jwt -> validatedTokens.put(key, jwt));
+    }
+}
@@ -0,0 +1,47 @@
+package ma.sieger.commons.security;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class KeycloakRoleConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+    // Tokens only carry a handful of role combinations: each one maps to a single shared, immutable list
+    private static final int MAX_ROLE_SETS = 1024;
+
+    private final Map<List<String>, List<GrantedAuthority>> authoritiesByRoles = new ConcurrentHashMap<>();
+
+    // Claims are checked rather than cast: a malformed token gets no authorities instead of failing the request
+    @Override
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        if (!(jwt.getClaims().get("realm_access") instanceof Map<?, ?> realmAccess)
+                || !(realmAccess.get("roles") instanceof Collection<?> roles)) {
+            return List.of();
+        }
+
+        List<String> roleList = roles.stream()
+                .filter(String.class::isInstance)
+                .map(String.class::cast)
+                .toList();
+        if (roleList.isEmpty()) {
+            return List.of();
+        }
+
+        List<GrantedAuthority> authorities = authoritiesByRoles.get(roleList);
+        if (authorities == null) {
+            authorities = roleList.stream()
+                    .map(roleName -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + roleName))
+                    .toList();
+            if (authoritiesByRoles.size() < MAX_ROLE_SETS) {
+                authoritiesByRoles.putIfAbsent(roleList, authorities);
+            }
+        }
+        return authorities;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package ma.sieger.commons.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Tokens that passed verification, until their {@code exp}, behind {@link CachingJwtDecoder} and
+ * {@link CachingReactiveJwtDecoder}. Entries are keyed by the SHA-256 of the token, and tokens without
+ * an expiry are evicted right away.
+ */
+final class VerifiedJwtCache {
+
+    private final Cache<String, Jwt> validatedTokens;
+
+    VerifiedJwtCache(long maxSize, Clock clock) {
+        this.validatedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.<String, Jwt>writing((key, jwt) -> timeToLive(jwt, clock.instant())))
+                .build();
+    }
+
+    // Null when the token has not been verified yet, or has expired since
+    Jwt get(String key) {
+        return validatedTokens.getIfPresent(key);
+    }
+
+    void put(String key, Jwt jwt) {
+        validatedTokens.put(key, jwt);
+    }
+
+    static String key(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Duration timeToLive(Jwt jwt, Instant now) {
+        Instant expiresAt = jwt.getExpiresAt();
+        return expiresAt == null || !expiresAt.isAfter(now) ? Duration.ZERO : Duration.between(now, expiresAt);
+    }
+}
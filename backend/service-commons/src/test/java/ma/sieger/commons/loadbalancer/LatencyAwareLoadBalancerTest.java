@@ -0,0 +1,109 @@
+package ma.sieger.commons.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyAwareLoadBalancerTest {
+
+    private static final int REQUESTS = 20_000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final InstanceStatsRegistry registry = new InstanceStatsRegistry(
+            Duration.ofSeconds(10), 5, Duration.ofSeconds(30), Duration.ofMinutes(1), clock::get);
+    private final LatencyAwareLoadBalancer loadBalancer =
+            new LatencyAwareLoadBalancer("PRODUCT-SERVICE", null, registry, new Random(7));
+    private final List<ServiceInstance> instances = List.of(instance(1), instance(2), instance(3), instance(4), instance(5));
+
+    // 5 stub instances at 2000 requests/s, instance 5 answers ~15 times slower (GC pauses, noisy neighbour)
+    @Test
+    void slowInstanceNoLongerDrivesTheP99() {
+        int[] next = {0};
+        List<Long> roundRobin = simulate(candidates -> candidates.get(next[0]++ % candidates.size()));
+        List<Long> latencyAware = simulate(candidates -> loadBalancer.choose(candidates).getServer());
+
+        long roundRobinP99 = p99(roundRobin);
+        long latencyAwareP99 = p99(latencyAware);
+        assertTrue(latencyAwareP99 * 3 < roundRobinP99,
+                "p99 round robin " + roundRobinP99 + " ms, latency aware " + latencyAwareP99 + " ms");
+    }
+
+    @Test
+    void instanceFailingRepeatedlyIsEjectedForAWhile() {
+        ServiceInstance failing = instances.get(0);
+        for (int i = 0; i < 5; i++) {
+            registry.onStart(failing);
+            registry.onComplete(failing, TimeUnit.MILLISECONDS.toNanos(1), true);
+        }
+
+        assertEquals(4, registry.available(instances).size());
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(loadBalancer.choose(instances).getServer() == failing);
+        }
+        // Everything ejected is the same as nothing ejected
+        assertEquals(List.of(failing), registry.available(List.of(failing)));
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertEquals(5, registry.available(instances).size());
+    }
+
+    // Discrete-event simulation on the fake clock, returns the latency of each request in ms
+    private List<Long> simulate(Function<List<ServiceInstance>, ServiceInstance> strategy) {
+        Random random = new Random(42);
+        PriorityQueue<Completion> pending = new PriorityQueue<>();
+        List<Long> latencies = new ArrayList<>(REQUESTS);
+        long now = clock.get();
+        for (int i = 0; i < REQUESTS; i++) {
+            now += exponential(random, 500_000);
+            while (!pending.isEmpty() && pending.peek().at() <= now) {
+                Completion completion = pending.poll();
+                clock.set(completion.at());
+                registry.onComplete(completion.instance(), completion.latency(), false);
+            }
+            clock.set(now);
+            ServiceInstance instance = strategy.apply(instances);
+            long latency = instance == instances.get(4)
+                    ? 80_000_000 + exponential(random, 20_000_000)
+                    : 5_000_000 + exponential(random, 2_000_000);
+            registry.onStart(instance);
+            pending.add(new Completion(now + latency, instance, latency));
+            latencies.add(TimeUnit.NANOSECONDS.toMillis(latency));
+        }
+        return latencies;
+    }
+
+    private static long exponential(Random random, long meanNanos) {
+        return (long) (-Math.log(1 - random.nextDouble()) * meanNanos);
+    }
+
+    private static long p99(List<Long> latencies) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+    }
+
+    private static ServiceInstance instance(int index) {
+        return new DefaultServiceInstance("product-" + index, "PRODUCT-SERVICE", "10.0.0." + index, 8081, false);
+    }
+
+    private record Completion(long at, ServiceInstance instance, long latency) implements Comparable<Completion> {
+        @Override
+        public int compareTo(Completion other) {
+            return Long.compare(at, other.at);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package ma.sieger.commons.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T10:00:00Z");
+
+    private final AtomicInteger decodes = new AtomicInteger();
+
+    @Test
+    void verifiesATokenOnceUntilItExpires() {
+        CachingJwtDecoder decoder = decoder(token -> jwt(token, NOW.plusSeconds(300)));
+
+        Jwt first = decoder.decode("token-a");
+        assertSame(first, decoder.decode("token-a"));
+        assertEquals(1, decodes.get());
+
+        decoder.decode("token-b");
+        assertEquals(2, decodes.get());
+    }
+
+    @Test
+    void neverCachesRejectedOrExpiredTokens() {
+        CachingJwtDecoder decoder = decoder(token -> {
+            if (token.equals("forged")) {
+                throw new BadJwtException("Invalid signature");
+            }
+            return jwt(token, NOW.minusSeconds(1));
+        });
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("forged"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("forged"));
+        decoder.decode("expired");
+        decoder.decode("expired");
+        assertEquals(4, decodes.get());
+    }
+
+    @Test
+    void reactiveDecoderExpiresTokensOnTheSameClock() {
+        CachingReactiveJwtDecoder decoder = new CachingReactiveJwtDecoder(token -> {
+            decodes.incrementAndGet();
+            return Mono.just(jwt(token, token.equals("expired") ? NOW.minusSeconds(1) : NOW.plusSeconds(300)));
+        }, 100, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        Jwt first = decoder.decode("token-a").block();
+        assertSame(first, decoder.decode("token-a").block());
+        decoder.decode("expired").block();
+        decoder.decode("expired").block();
+        assertEquals(3, decodes.get());
+    }
+
+    private CachingJwtDecoder decoder(JwtDecoder delegate) {
+        JwtDecoder counting = token -> {
+            decodes.incrementAndGet();
+            return delegate.decode(token);
+        };
+        return new CachingJwtDecoder(counting, 100, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("user")
+                .issuedAt(expiresAt.minusSeconds(600))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
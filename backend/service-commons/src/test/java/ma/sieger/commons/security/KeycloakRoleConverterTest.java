@@ -0,0 +1,43 @@
+package ma.sieger.commons.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeycloakRoleConverterTest {
+
+    private final KeycloakRoleConverter converter = new KeycloakRoleConverter();
+
+    @Test
+    void realmRolesBecomeSharedAuthorities() {
+        Collection<GrantedAuthority> authorities = converter.convert(jwt(Map.of("roles", List.of("CLIENT", "ADMIN"))));
+
+        assertEquals(List.of("ROLE_CLIENT", "ROLE_ADMIN"),
+                authorities.stream().map(GrantedAuthority::getAuthority).toList());
+        assertSame(authorities, converter.convert(jwt(Map.of("roles", List.of("CLIENT", "ADMIN")))));
+    }
+
+    @Test
+    void malformedClaimsGiveNoAuthorities() {
+        assertTrue(converter.convert(jwt("ADMIN")).isEmpty());
+        assertTrue(converter.convert(jwt(Map.of("roles", "ADMIN"))).isEmpty());
+        assertTrue(converter.convert(jwt(Map.of("roles", List.of(1, 2)))).isEmpty());
+        assertEquals(1, converter.convert(jwt(Map.of("roles", List.of(1, "CLIENT")))).size());
+    }
+
+    private static Jwt jwt(Object realmAccess) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("user")
+                .claim("realm_access", realmAccess)
+                .build();
+    }
+}
@@ -6,13 +6,17 @@ interface OrderCardProps {
 
 const statusColors: Record<string, string> = {
   CREATED: 'bg-blue-100 text-blue-800',
+  CONFIRMED: 'bg-indigo-100 text-indigo-800',
+  REJECTED: 'bg-red-100 text-red-800',
   PENDING: 'bg-yellow-100 text-yellow-800',
   DELIVERED: 'bg-green-100 text-green-800',
   CANCELED: 'bg-red-100 text-red-800',
 };
 
 const statusLabels: Record<string, string> = {
-  CREATED: 'Créée',
+  CREATED: 'En attente de confirmation',
+  CONFIRMED: 'Confirmée',
+  REJECTED: 'Refusée (stock insuffisant)',
   PENDING: 'En cours',
   DELIVERED: 'Livrée',
   CANCELED: 'Annulée',
@@ -8,6 +8,8 @@ const AdminOrdersPage = () => {
   const [orders, setOrders] = useState<Order[]>([]);
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [isLoadingMore, setIsLoadingMore] = useState(false);
 
   useEffect(() => {
     loadOrders();
@@ -16,8 +18,9 @@ const AdminOrdersPage = () => {
   const loadOrders = async () => {
     try {
       setIsLoading(true);
-      const data = await orderService.getAllOrders();
-      setOrders(data);
+      const page = await orderService.getAllOrders();
+      setOrders(page.content);
+      setNextCursor(page.nextCursor);
     } catch (err) {
       setError('Impossible de charger les commandes');
       console.error(err);
@@ -26,6 +29,21 @@ const AdminOrdersPage = () => {
     }
   };
 
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    try {
+      setIsLoadingMore(true);
+      const page = await orderService.getAllOrders(nextCursor);
+      setOrders((current) => [...current, ...page.content]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      setError('Impossible de charger plus de commandes');
+      console.error(err);
+    } finally {
+      setIsLoadingMore(false);
+    }
+  };
+
   if (isLoading) {
     return (
       <div className="min-h-screen flex items-center justify-center">
@@ -38,7 +56,7 @@ const AdminOrdersPage = () => {
     <div className="max-w-6xl mx-auto px-4 py-8">
       <div className="mb-8">
         <h1 className="text-3xl font-bold text-gray-800">Toutes les Commandes</h1>
-        <p className="text-gray-600">{orders.length} commande(s) au total</p>
+        <p className="text-gray-600">{orders.length} commande(s) affichée(s)</p>
       </div>
 
       {error && (
@@ -55,11 +73,24 @@ const AdminOrdersPage = () => {
           <p className="text-gray-500">Aucune commande enregistrée</p>
         </div>
       ) : (
-        <div className="grid grid-cols-1 md:grid-cols-2 gap-6">
-          {orders.map((order) => (
-            <OrderCard key={order.id} order={order} />
-          ))}
-        </div>
+        <>
+          <div className="grid grid-cols-1 md:grid-cols-2 gap-6">
+            {orders.map((order) => (
+              <OrderCard key={order.id} order={order} />
+            ))}
+          </div>
+          {nextCursor && (
+            <div className="text-center mt-6">
+              <button
+                onClick={loadMore}
+                disabled={isLoadingMore}
+                className="px-4 py-2 bg-indigo-600 text-white rounded-md hover:bg-indigo-700 disabled:opacity-50"
+              >
+                {isLoadingMore ? 'Chargement...' : 'Charger plus'}
+              </button>
+            </div>
+          )}
+        </>
       )}
     </div>
   );
@@ -1,15 +1,20 @@
-import { useState, useEffect } from 'react';
+import { useState, useEffect, useRef } from 'react';
 import { productService } from '../services/productService';
-import type { Product, ProductRequest } from '../types';
+import type { Product, ProductImportReport, ProductRequest } from '../types';
 import ProductCard from '../components/ProductCard';
 import ProductFormModal from '../components/ProductFormModal';
 import ConfirmModal from '../components/ConfirmModal';
 import LoadingSpinner from '../components/LoadingSpinner';
 
+const PAGE_SIZE = 24;
+
 const AdminProductsPage = () => {
   const [products, setProducts] = useState<Product[]>([]);
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
+  const [page, setPage] = useState(0);
+  const [totalElements, setTotalElements] = useState(0);
+  const [isLoadingMore, setIsLoadingMore] = useState(false);
   
   // Modal states
   const [isFormModalOpen, setIsFormModalOpen] = useState(false);
@@ -17,6 +22,11 @@ const AdminProductsPage = () => {
   const [selectedProduct, setSelectedProduct] = useState<Product | null>(null);
   const [isDeleting, setIsDeleting] = useState(false);
 
+  // Catalog feed import
+  const importInputRef = useRef<HTMLInputElement>(null);
+  const [isImporting, setIsImporting] = useState(false);
+  const [importReport, setImportReport] = useState<ProductImportReport | null>(null);
+
   useEffect(() => {
     loadProducts();
   }, []);
@@ -24,8 +34,10 @@ const AdminProductsPage = () => {
   const loadProducts = async () => {
     try {
       setIsLoading(true);
-      const data = await productService.getAllProducts();
-      setProducts(data);
+      const first = await productService.getProducts({ size: PAGE_SIZE });
+      setProducts(first.content);
+      setPage(first.page);
+      setTotalElements(first.totalElements);
     } catch (err) {
       setError('Impossible de charger les produits');
       console.error(err);
@@ -39,9 +51,15 @@ const AdminProductsPage = () => {
     setIsFormModalOpen(true);
   };
 
-  const handleEdit = (product: Product) => {
-    setSelectedProduct(product);
-    setIsFormModalOpen(true);
+  // Catalog pages leave out the description, so the full product is fetched before editing
+  const handleEdit = async (product: Product) => {
+    try {
+      setSelectedProduct(await productService.getProductById(product.id));
+      setIsFormModalOpen(true);
+    } catch (err) {
+      setError('Impossible de charger le produit');
+      console.error(err);
+    }
   };
 
   const handleDeleteClick = (product: Product) => {
@@ -73,6 +91,39 @@ const AdminProductsPage = () => {
     }
   };
 
+  const handleImportFile = async (event: React.ChangeEvent<HTMLInputElement>) => {
+    const file = event.target.files?.[0];
+    event.target.value = '';
+    if (!file) return;
+
+    setIsImporting(true);
+    setImportReport(null);
+    try {
+      setImportReport(await productService.importProducts(file));
+      await loadProducts();
+    } catch (err) {
+      setError("Impossible d'importer le catalogue");
+      console.error(err);
+    } finally {
+      setIsImporting(false);
+    }
+  };
+
+  const loadMore = async () => {
+    try {
+      setIsLoadingMore(true);
+      const next = await productService.getProducts({ page: page + 1, size: PAGE_SIZE });
+      setProducts((current) => [...current, ...next.content]);
+      setPage(next.page);
+      setTotalElements(next.totalElements);
+    } catch (err) {
+      setError('Impossible de charger plus de produits');
+      console.error(err);
+    } finally {
+      setIsLoadingMore(false);
+    }
+  };
+
   if (isLoading) {
     return (
       <div className="min-h-screen flex items-center justify-center">
@@ -87,19 +138,55 @@ const AdminProductsPage = () => {
       <div className="flex justify-between items-center mb-8">
         <div>
           <h1 className="text-3xl font-bold text-gray-800">Gestion des Produits</h1>
-          <p className="text-gray-600">{products.length} produit(s) au total</p>
+          <p className="text-gray-600">{totalElements} produit(s) au total</p>
+        </div>
+        <div className="flex gap-3">
+          <input
+            ref={importInputRef}
+            type="file"
+            accept=".csv,.ndjson,.jsonl"
+            className="hidden"
+            onChange={handleImportFile}
+          />
+          <button
+            onClick={() => importInputRef.current?.click()}
+            disabled={isImporting}
+            className="border border-indigo-600 text-indigo-600 px-6 py-3 rounded-md font-medium hover:bg-indigo-50 transition disabled:opacity-50"
+          >
+            {isImporting ? 'Import en cours...' : 'Importer un catalogue'}
+          </button>
+          <button
+            onClick={handleCreate}
+            className="bg-indigo-600 text-white px-6 py-3 rounded-md font-medium hover:bg-indigo-700 transition flex items-center gap-2"
+          >
+            <svg className="w-5 h-5" fill="none" stroke="currentColor" viewBox="0 0 24 24">
+              <path strokeLinecap="round" strokeLinejoin="round" strokeWidth={2} d="M12 4v16m8-8H4" />
+            </svg>
+            Ajouter un produit
+          </button>
         </div>
-        <button
-          onClick={handleCreate}
-          className="bg-indigo-600 text-white px-6 py-3 rounded-md font-medium hover:bg-indigo-700 transition flex items-center gap-2"
-        >
-          <svg className="w-5 h-5" fill="none" stroke="currentColor" viewBox="0 0 24 24">
-            <path strokeLinecap="round" strokeLinejoin="round" strokeWidth={2} d="M12 4v16m8-8H4" />
-          </svg>
-          Ajouter un produit
-        </button>
       </div>
 
+      {importReport && (
+        <div className="bg-indigo-50 border border-indigo-200 text-indigo-800 p-4 rounded-md mb-6">
+          <p>
+            {importReport.rows} ligne(s) lue(s) en {(importReport.durationMs / 1000).toFixed(1)} s
+            ({importReport.rowsPerSecond} lignes/s) : {importReport.created} créé(s),
+            {' '}{importReport.updated} mis à jour, {importReport.rejected} rejeté(s)
+          </p>
+          {importReport.errors.length > 0 && (
+            <ul className="mt-2 text-sm text-red-600 max-h-40 overflow-y-auto">
+              {importReport.errors.map((importError, index) => (
+                <li key={index}>
+                  {importError.line > 0 ? `Ligne ${importError.line} : ` : ''}{importError.message}
+                </li>
+              ))}
+              {importReport.errorsTruncated && <li>…</li>}
+            </ul>
+          )}
+        </div>
+      )}
+
       {error && (
         <div className="bg-red-50 border border-red-200 text-red-600 p-4 rounded-md mb-6">
           {error}
@@ -121,17 +208,30 @@ const AdminProductsPage = () => {
           </button>
         </div>
       ) : (
-        <div className="grid grid-cols-1 sm:grid-cols-2 md:grid-cols-3 lg:grid-cols-4 gap-6">
-          {products.map((product) => (
-            <ProductCard
-              key={product.id}
-              product={product}
-              showAdminActions
-              onEdit={handleEdit}
-              onDelete={handleDeleteClick}
-            />
-          ))}
-        </div>
+        <>
+          <div className="grid grid-cols-1 sm:grid-cols-2 md:grid-cols-3 lg:grid-cols-4 gap-6">
+            {products.map((product) => (
+              <ProductCard
+                key={product.id}
+                product={product}
+                showAdminActions
+                onEdit={handleEdit}
+                onDelete={handleDeleteClick}
+              />
+            ))}
+          </div>
+          {products.length < totalElements && (
+            <div className="text-center mt-6">
+              <button
+                onClick={loadMore}
+                disabled={isLoadingMore}
+                className="px-4 py-2 bg-indigo-600 text-white rounded-md hover:bg-indigo-700 disabled:opacity-50"
+              >
+                {isLoadingMore ? 'Chargement...' : 'Charger plus'}
+              </button>
+            </div>
+          )}
+        </>
       )}
 
       {/* Create/Edit Modal */}
@@ -2,7 +2,7 @@ import { Link, useNavigate } from 'react-router-dom';
 import { useCart } from '../context/CartContext';
 import { useAuth } from '../context/AuthContext';
 import { orderService } from '../services/orderService';
-import { useState } from 'react';
+import { useMemo, useState } from 'react';
 
 const CartPage = () => {
   const { items, updateQuantity, removeFromCart, clearCart, totalPrice } = useCart();
@@ -10,6 +10,8 @@ const CartPage = () => {
   const navigate = useNavigate();
   const [isOrdering, setIsOrdering] = useState(false);
   const [error, setError] = useState<string | null>(null);
+  // One key per cart content, so a resubmitted checkout is recognised by order-service
+  const idempotencyKey = useMemo(() => crypto.randomUUID(), [items]);
 
   const handleCheckout = async () => {
     if (!isAuthenticated) {
@@ -33,7 +35,7 @@ const CartPage = () => {
         }, {} as Record<string, number>),
       };
 
-      await orderService.createOrder(orderRequest);
+      await orderService.createOrder(orderRequest, idempotencyKey);
       clearCart();
       navigate('/orders', { state: { message: 'Commande passée avec succès !' } });
     } catch (err) {
@@ -5,10 +5,15 @@ import ProductCard from '../components/ProductCard';
 import LoadingSpinner from '../components/LoadingSpinner';
 import { useAuth } from '../context/AuthContext';
 
+const PAGE_SIZE = 24;
+
 const HomePage = () => {
   const [products, setProducts] = useState<Product[]>([]);
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
+  const [page, setPage] = useState(0);
+  const [totalElements, setTotalElements] = useState(0);
+  const [isLoadingMore, setIsLoadingMore] = useState(false);
   const { isAuthenticated, isClient, login } = useAuth();
 
   useEffect(() => {
@@ -18,8 +23,10 @@ const HomePage = () => {
   const loadProducts = async () => {
     try {
       setIsLoading(true);
-      const data = await productService.getAllProducts();
-      setProducts(data);
+      const first = await productService.getProducts({ size: PAGE_SIZE });
+      setProducts(first.content);
+      setPage(first.page);
+      setTotalElements(first.totalElements);
     } catch (err) {
       setError('Impossible de charger les produits');
       console.error(err);
@@ -28,6 +35,21 @@ const HomePage = () => {
     }
   };
 
+  const loadMore = async () => {
+    try {
+      setIsLoadingMore(true);
+      const next = await productService.getProducts({ page: page + 1, size: PAGE_SIZE });
+      setProducts((current) => [...current, ...next.content]);
+      setPage(next.page);
+      setTotalElements(next.totalElements);
+    } catch (err) {
+      setError('Impossible de charger plus de produits');
+      console.error(err);
+    } finally {
+      setIsLoadingMore(false);
+    }
+  };
+
   if (isLoading) {
     return (
       <div className="min-h-screen flex items-center justify-center">
@@ -78,7 +100,7 @@ const HomePage = () => {
       {/* Products Grid */}
       <div className="mb-6">
         <h2 className="text-2xl font-bold text-gray-800 mb-2">Nos Produits</h2>
-        <p className="text-gray-600">{products.length} produit(s) disponible(s)</p>
+        <p className="text-gray-600">{totalElements} produit(s) disponible(s)</p>
       </div>
 
       {products.length === 0 ? (
@@ -89,11 +111,24 @@ const HomePage = () => {
           <p className="text-gray-500">Aucun produit disponible pour le moment</p>
         </div>
       ) : (
-        <div className="grid grid-cols-1 sm:grid-cols-2 md:grid-cols-3 lg:grid-cols-4 gap-6">
-          {products.map((product) => (
-            <ProductCard key={product.id} product={product} />
-          ))}
-        </div>
+        <>
+          <div className="grid grid-cols-1 sm:grid-cols-2 md:grid-cols-3 lg:grid-cols-4 gap-6">
+            {products.map((product) => (
+              <ProductCard key={product.id} product={product} />
+            ))}
+          </div>
+          {products.length < totalElements && (
+            <div className="text-center mt-6">
+              <button
+                onClick={loadMore}
+                disabled={isLoadingMore}
+                className="px-4 py-2 bg-indigo-600 text-white rounded-md hover:bg-indigo-700 disabled:opacity-50"
+              >
+                {isLoadingMore ? 'Chargement...' : 'Charger plus'}
+              </button>
+            </div>
+          )}
+        </>
       )}
     </div>
   );
@@ -9,6 +9,8 @@ const OrdersPage = () => {
   const [orders, setOrders] = useState<Order[]>([]);
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [isLoadingMore, setIsLoadingMore] = useState(false);
   const location = useLocation();
   const successMessage = location.state?.message;
 
@@ -20,8 +22,9 @@ const OrdersPage = () => {
     try {
       setIsLoading(true);
       // Get orders for the current authenticated client
-      const data = await orderService.getMyOrders();
-      setOrders(data);
+      const page = await orderService.getMyOrders();
+      setOrders(page.content);
+      setNextCursor(page.nextCursor);
     } catch (err) {
       setError('Impossible de charger vos commandes');
       console.error(err);
@@ -30,6 +33,21 @@ const OrdersPage = () => {
     }
   };
 
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    try {
+      setIsLoadingMore(true);
+      const page = await orderService.getMyOrders(nextCursor);
+      setOrders((current) => [...current, ...page.content]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      setError('Impossible de charger plus de commandes');
+      console.error(err);
+    } finally {
+      setIsLoadingMore(false);
+    }
+  };
+
   if (isLoading) {
     return (
       <div className="min-h-screen flex items-center justify-center">
@@ -62,11 +80,24 @@ const OrdersPage = () => {
           <p className="text-gray-500">Vous n'avez pas encore de commandes</p>
         </div>
       ) : (
-        <div className="space-y-6">
-          {orders.map((order) => (
-            <OrderCard key={order.id} order={order} />
-          ))}
-        </div>
+        <>
+          <div className="space-y-6">
+            {orders.map((order) => (
+              <OrderCard key={order.id} order={order} />
+            ))}
+          </div>
+          {nextCursor && (
+            <div className="text-center mt-6">
+              <button
+                onClick={loadMore}
+                disabled={isLoadingMore}
+                className="px-4 py-2 bg-indigo-600 text-white rounded-md hover:bg-indigo-700 disabled:opacity-50"
+              >
+                {isLoadingMore ? 'Chargement...' : 'Charger plus'}
+              </button>
+            </div>
+          )}
+        </>
       )}
     </div>
   );
@@ -1,12 +1,14 @@
 import api from './api';
-import type { Order, OrderRequest } from '../types';
+import type { Order, OrderPage, OrderRequest } from '../types';
 
 const ORDER_SERVICE_URL = '/ORDER-SERVICE/api/orders';
 
 export const orderService = {
-  // Create order (CLIENT only)
-  createOrder: async (orderRequest: OrderRequest): Promise<Order> => {
-    const response = await api.post<Order>(ORDER_SERVICE_URL, orderRequest);
+  // Create order (CLIENT only), retries with the same key never create a second order
+  createOrder: async (orderRequest: OrderRequest, idempotencyKey: string): Promise<Order> => {
+    const response = await api.post<Order>(ORDER_SERVICE_URL, orderRequest, {
+      headers: { 'Idempotency-Key': idempotencyKey },
+    });
     return response.data;
   },
 
@@ -17,14 +19,14 @@ export const orderService = {
   },
 
   // Get my orders (CLIENT only)
-  getMyOrders: async (): Promise<Order[]> => {
-    const response = await api.get<Order[]>(`${ORDER_SERVICE_URL}/my-orders`);
+  getMyOrders: async (cursor?: string): Promise<OrderPage> => {
+    const response = await api.get<OrderPage>(`${ORDER_SERVICE_URL}/my-orders`, { params: { cursor } });
     return response.data;
   },
 
   // Get all orders (ADMIN only)
-  getAllOrders: async (): Promise<Order[]> => {
-    const response = await api.get<Order[]>(ORDER_SERVICE_URL);
+  getAllOrders: async (cursor?: string): Promise<OrderPage> => {
+    const response = await api.get<OrderPage>(ORDER_SERVICE_URL, { params: { cursor } });
     return response.data;
   },
 };
@@ -1,12 +1,12 @@
 import api from './api';
-import type { Product, ProductRequest } from '../types';
+import type { Product, ProductImportReport, ProductPage, ProductQuery, ProductRequest } from '../types';
 
 const PRODUCT_SERVICE_URL = '/PRODUCT-SERVICE/api/products';
 
 export const productService = {
-  // Get all products (public)
-  getAllProducts: async (): Promise<Product[]> => {
-    const response = await api.get<Product[]>(PRODUCT_SERVICE_URL);
+  // Get one page of the catalog, filtered and sorted server-side (public)
+  getProducts: async (query: ProductQuery = {}): Promise<ProductPage> => {
+    const response = await api.get<ProductPage>(PRODUCT_SERVICE_URL, { params: query });
     return response.data;
   },
 
@@ -28,6 +28,15 @@ export const productService = {
     return response.data;
   },
 
+  // Upsert a CSV or NDJSON catalog feed, products are matched by name (ADMIN only)
+  importProducts: async (file: File): Promise<ProductImportReport> => {
+    const contentType = file.name.toLowerCase().endsWith('.csv') ? 'text/csv' : 'application/x-ndjson';
+    const response = await api.post<ProductImportReport>(`${PRODUCT_SERVICE_URL}/import`, file, {
+      headers: { 'Content-Type': contentType },
+    });
+    return response.data;
+  },
+
   // Delete product (ADMIN only)
   deleteProduct: async (id: string): Promise<void> => {
     await api.delete(`${PRODUCT_SERVICE_URL}/${id}`);
@@ -2,12 +2,32 @@
 export interface Product {
   id: string;
   name: string;
-  description: string;
+  // Not included in catalog pages, only when a single product is fetched
+  description?: string;
   price: number;
   quantity: number;
   imageUrl?: string;
 }
 
+export interface ProductPage {
+  content: Product[];
+  page: number;
+  size: number;
+  totalElements: number;
+  totalPages: number;
+}
+
+export interface ProductQuery {
+  page?: number;
+  size?: number;
+  sortBy?: 'name' | 'price';
+  direction?: 'asc' | 'desc';
+  minPrice?: number;
+  maxPrice?: number;
+  inStock?: boolean;
+  q?: string;
+}
+
 export interface ProductRequest {
   name: string;
   description?: string;
@@ -16,6 +36,22 @@ export interface ProductRequest {
   imageUrl?: string;
 }
 
+export interface ProductImportError {
+  line: number;
+  message: string;
+}
+
+export interface ProductImportReport {
+  rows: number;
+  created: number;
+  updated: number;
+  rejected: number;
+  durationMs: number;
+  rowsPerSecond: number;
+  errorsTruncated: boolean;
+  errors: ProductImportError[];
+}
+
 // Order types
 export interface OrderLineItem {
   id: number;
@@ -25,7 +61,7 @@ export interface OrderLineItem {
   totalLinePrice: number;
 }
 
-export type OrderStatus = 'CREATED' | 'PENDING' | 'DELIVERED' | 'CANCELED';
+export type OrderStatus = 'CREATED' | 'CONFIRMED' | 'REJECTED' | 'PENDING' | 'DELIVERED' | 'CANCELED';
 
 export interface Order {
   id: string;
@@ -35,6 +71,12 @@ export interface Order {
   orderLines: OrderLineItem[];
 }
 
+// Keyset page: pass nextCursor back to get the following page, null when there is none
+export interface OrderPage {
+  content: Order[];
+  nextCursor: string | null;
+}
+
 export interface OrderRequest {
   products: Record<string, number>; // { productId: quantity }
 }